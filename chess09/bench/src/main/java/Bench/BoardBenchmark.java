@@ -0,0 +1,128 @@
+package Bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import Board.*;
+import Controller.*;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Benchmarks of the ChessBoard queries and moves over the middlegame corpus. Run with
+ * "-prof gc" to see gc.alloc.rate.norm, the bytes allocated per call.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+
+    @Param
+    public MiddlegamePosition position;
+
+    private ChessBoard board;
+    private int[] cycle;
+    private int next;
+
+    /**
+     * Sets up the board and a cycle of four quiet moves (out and back for both sides) that
+     * leaves the board where it started, so movePiece can be measured without a reset
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        board = position.createBoard();
+        cycle = findCycle(position);
+        next = 0;
+    }
+
+    @Benchmark
+    public boolean isCheck() {
+        return board.isCheck(board.getCurrentPlayer());
+    }
+
+    @Benchmark
+    public boolean isCheckmate() {
+        return board.isCheckmate(board.getCurrentPlayer());
+    }
+
+    @Benchmark
+    public List<ChessPiece> getPieces() {
+        return board.getPieces(board.getCurrentPlayer());
+    }
+
+    @Benchmark
+    public King findKing() {
+        return board.findKing(board.getCurrentPlayer());
+    }
+
+    @Benchmark
+    public String toStringBoard() {
+        return board.toString();
+    }
+
+    @Benchmark
+    public boolean movePiece() {
+        int move = cycle[next];
+        next = (next + 1) & 3;
+        int from = Move.from(move);
+        int to = Move.to(move);
+        boolean moved = board.movePiece(from >>> 3, from & 7, to >>> 3, to & 7);
+        board.nextPlayer();
+        return moved;
+    }
+
+    private static int[] findCycle(MiddlegamePosition position) {
+        ChessBoard board = position.createBoard();
+        MoveList moves = new MoveList();
+        board.getLegalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int first = moves.get(i);
+            if (!isQuietPieceMove(board, first)) {
+                continue;
+            }
+            ChessBoard trial = position.createBoard();
+            play(trial, first);
+            MoveList replies = new MoveList();
+            trial.getLegalMoves(replies);
+            for (int j = 0; j < replies.size(); j++) {
+                int second = replies.get(j);
+                if (!isQuietPieceMove(trial, second)) {
+                    continue;
+                }
+                ChessBoard check = position.createBoard();
+                if (play(check, first) && play(check, second)
+                        && play(check, reverse(first)) && play(check, reverse(second))) {
+                    return new int[] { first, second, reverse(first), reverse(second) };
+                }
+            }
+        }
+        throw new IllegalStateException(position + ": no reversible moves in the position");
+    }
+
+    private static boolean isQuietPieceMove(ChessBoard board, int move) {
+        int from = Move.from(move);
+        ChessPiece piece = board.getBoardCopy()[from >>> 3][from & 7];
+        return !Move.is(move, Move.CAPTURE) && Move.promotion(move) == 0
+                && (piece instanceof Knight || piece instanceof Bishop || piece instanceof Queen);
+    }
+
+    private static int reverse(int move) {
+        return Move.of(Move.to(move), Move.from(move), 0, 0);
+    }
+
+    private static boolean play(ChessBoard board, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        if (!board.movePiece(from >>> 3, from & 7, to >>> 3, to & 7)) {
+            return false;
+        }
+        board.nextPlayer();
+        return true;
+    }
+}
@@ -0,0 +1,56 @@
+package Bench;
+
+import Board.ChessBoard;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Corpus of realistic middlegame positions for the benchmarks. Each position is reached by
+ * playing a well known opening line through ChessBoard.movePiece, in the same "e2 e4"
+ * notation Chess.main reads, so only the public API of the board is used.
+ */
+
+public enum MiddlegamePosition {
+
+    RUY_LOPEZ("e2 e4, e7 e5, g1 f3, b8 c6, f1 b5, a7 a6, b5 a4, g8 f6, e1 g1, f8 e7, f1 e1, b7 b5,"
+            + " a4 b3, d7 d6, c2 c3, e8 g8, h2 h3, c6 a5, b3 c2, c7 c5, d2 d4, d8 c7"),
+    QUEENS_GAMBIT("d2 d4, d7 d5, c2 c4, e7 e6, b1 c3, g8 f6, c1 g5, f8 e7, e2 e3, e8 g8, g1 f3, b8 d7,"
+            + " a1 c1, c7 c6, f1 d3, d5 c4, d3 c4, f6 d5, g5 e7, d8 e7, e1 g1, d5 c3, c1 c3, e6 e5"),
+    NAJDORF("e2 e4, c7 c5, g1 f3, d7 d6, d2 d4, c5 d4, f3 d4, g8 f6, b1 c3, a7 a6, c1 e3, e7 e5,"
+            + " d4 b3, c8 e6, f2 f3, f8 e7, d1 d2, e8 g8, e1 c1, b8 d7, g2 g4, b7 b5, g4 g5, b5 b4,"
+            + " c3 e2, f6 e8"),
+    KINGS_INDIAN("d2 d4, g8 f6, c2 c4, g7 g6, b1 c3, f8 g7, e2 e4, d7 d6, g1 f3, e8 g8, f1 e2, e7 e5,"
+            + " e1 g1, b8 c6, d4 d5, c6 e7, f3 e1, f6 d7, e1 d3, f7 f5, c1 d2, d7 f6, f2 f3, f5 f4"),
+    ITALIAN("e2 e4, e7 e5, g1 f3, b8 c6, f1 c4, f8 c5, c2 c3, g8 f6, d2 d3, d7 d6, e1 g1, a7 a6,"
+            + " a2 a4, e8 g8, f1 e1, c5 a7, h2 h3, c6 e7, b1 d2, e7 g6, d3 d4, c7 c6"),
+    WINAWER("e2 e4, e7 e6, d2 d4, d7 d5, b1 c3, f8 b4, e4 e5, c7 c5, a2 a3, b4 c3, b2 c3, g8 e7,"
+            + " d1 g4, d8 c7, g4 g7, h8 g8, g7 h7, c5 d4, g1 e2, b8 c6, f2 f4, c8 d7");
+
+    private final String moves;
+
+    MiddlegamePosition(String moves) {
+        this.moves = moves;
+    }
+
+    /**
+     * Creates a board and plays the opening line on it
+     * @return  Returns a board in the middlegame position
+     * @throws IllegalStateException if the board rejects one of the moves
+     */
+    public ChessBoard createBoard() {
+        ChessBoard board = new ChessBoard();
+        for (String move : moves.split(", ")) {
+            String[] tokens = move.split(" ");
+            int fromCol = tokens[0].charAt(0) - 'a';
+            int fromRow = tokens[0].charAt(1) - '1';
+            int toCol = tokens[1].charAt(0) - 'a';
+            int toRow = tokens[1].charAt(1) - '1';
+            if (!board.movePiece(fromRow, fromCol, toRow, toCol)) {
+                throw new IllegalStateException(name() + ": illegal move " + move);
+            }
+            board.promotePiece(toRow, toCol, tokens);
+            board.nextPlayer();
+        }
+        return board;
+    }
+}
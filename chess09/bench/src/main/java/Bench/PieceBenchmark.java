@@ -0,0 +1,66 @@
+package Bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import Board.ChessBoard;
+import Controller.*;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Benchmark of ChessPiece.isValidMove for each piece type over the middlegame corpus. Every
+ * call probes the next (piece, target square) pair, walking all 64 targets of every piece of
+ * the chosen type on the board, so the score is the cost of a single call.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PieceBenchmark {
+
+    @Param({ "Pawn", "Knight", "Bishop", "Rook", "Queen", "King" })
+    public String pieceType;
+
+    @Param
+    public MiddlegamePosition position;
+
+    private ChessPiece[][] board;
+    private ChessPiece[] pieces;
+    private int probes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ClassNotFoundException {
+        ChessBoard chessBoard = position.createBoard();
+        board = chessBoard.getBoardCopy();
+        Class<?> type = Class.forName("Controller." + pieceType);
+        List<ChessPiece> found = new ArrayList<>();
+        for (PieceColor color : PieceColor.values()) {
+            for (ChessPiece piece : chessBoard.getPieces(color)) {
+                if (type.isInstance(piece)) {
+                    found.add(piece);
+                }
+            }
+        }
+        if (found.isEmpty()) {
+            throw new IllegalStateException(position + " has no " + pieceType);
+        }
+        pieces = found.toArray(new ChessPiece[0]);
+        probes = pieces.length * 64;
+        next = 0;
+    }
+
+    @Benchmark
+    public boolean isValidMove() {
+        int probe = next;
+        next = probe + 1 == probes ? 0 : probe + 1;
+        return pieces[probe >>> 6].isValidMove((probe >>> 3) & 7, probe & 7, board);
+    }
+}
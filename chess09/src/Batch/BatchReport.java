@@ -0,0 +1,173 @@
+package Batch;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import Pgn.PgnGame;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * The tally of a batch validation: how many games and moves were replayed, how the games
+ * ended and what was wrong with the invalid ones. Each worker fills its own report and the
+ * reports are added together afterwards, so no counter is shared between threads.
+ */
+
+public class BatchReport {
+
+    /** The most error messages a report keeps; invalid games past it are only counted */
+    public static final int MAX_ERRORS = 20;
+
+    private long games;
+    private long invalidGames;
+    private long plies;
+    private long bytes;
+    private long whiteWins;
+    private long blackWins;
+    private long draws;
+    private long unfinished;
+    private final List<String> errors = new ArrayList<>();
+
+    /**
+     * Counts a replayed game
+     * @param result    the result of the game, such as PgnGame.WHITE_WINS
+     * @param plies     the number of legal moves replayed
+     */
+    void addGame(String result, int plies) {
+        games++;
+        this.plies += plies;
+        if (PgnGame.WHITE_WINS.equals(result)) {
+            whiteWins++;
+        } else if (PgnGame.BLACK_WINS.equals(result)) {
+            blackWins++;
+        } else if (PgnGame.DRAW.equals(result)) {
+            draws++;
+        } else {
+            unfinished++;
+        }
+    }
+
+    /**
+     * Counts a game as invalid
+     * @param source    the name of the input holding the game
+     * @param game      the number of the game within its input, counting from 1
+     * @param error     what is wrong with the game
+     */
+    void addError(String source, int game, String error) {
+        invalidGames++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(source + " game " + game + ": " + error);
+        }
+    }
+
+    /**
+     * Counts bytes of input read
+     * @param bytes     the number of bytes
+     */
+    void addBytes(long bytes) {
+        this.bytes += bytes;
+    }
+
+    /**
+     * Adds another report to this one. The error messages of the other report come after
+     * the ones of this report, up to MAX_ERRORS.
+     * @param other     the report to add
+     */
+    public void add(BatchReport other) {
+        games += other.games;
+        invalidGames += other.invalidGames;
+        plies += other.plies;
+        bytes += other.bytes;
+        whiteWins += other.whiteWins;
+        blackWins += other.blackWins;
+        draws += other.draws;
+        unfinished += other.unfinished;
+        for (String error : other.errors) {
+            if (errors.size() == MAX_ERRORS) {
+                break;
+            }
+            errors.add(error);
+        }
+    }
+
+    /**
+     * Gets the number of games replayed
+     * @return  Returns the game count, valid and invalid
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Gets the number of games with an illegal move or a wrong result
+     * @return  Returns the invalid game count
+     */
+    public long getInvalidGames() {
+        return invalidGames;
+    }
+
+    /**
+     * Gets the number of legal moves replayed
+     * @return  Returns the ply count
+     */
+    public long getPlies() {
+        return plies;
+    }
+
+    /**
+     * Gets the number of bytes of input read
+     * @return  Returns the byte count
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Gets the number of games with a result
+     * @param result    PgnGame.WHITE_WINS, BLACK_WINS, DRAW or UNKNOWN
+     * @return          Returns the number of games that ended that way
+     */
+    public long getResultCount(String result) {
+        switch (result) {
+            case PgnGame.WHITE_WINS:
+                return whiteWins;
+            case PgnGame.BLACK_WINS:
+                return blackWins;
+            case PgnGame.DRAW:
+                return draws;
+            default:
+                return unfinished;
+        }
+    }
+
+    /**
+     * Gets the first error messages
+     * @return  Returns up to MAX_ERRORS messages, each naming the input and game
+     */
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * Prints the errors, the counts and the throughput
+     * @param out       the stream to print to
+     * @param elapsed   the time the validation took, in nanoseconds
+     * @param threads   the number of workers that replayed the games
+     */
+    public void print(PrintStream out, long elapsed, int threads) {
+        for (String error : errors) {
+            out.println(error);
+        }
+        if (invalidGames > errors.size()) {
+            out.println("... " + (invalidGames - errors.size()) + " more invalid games");
+        }
+        double seconds = elapsed / 1e9;
+        out.printf("%d games (%d valid, %d invalid), %d plies, %.1f MB in %.2f s on %d threads%n",
+                games, games - invalidGames, invalidGames, plies, bytes / 1e6, seconds, threads);
+        out.printf("results: %s %d, %s %d, %s %d, %s %d%n", PgnGame.WHITE_WINS, whiteWins, PgnGame.BLACK_WINS, blackWins,
+                PgnGame.DRAW, draws, PgnGame.UNKNOWN, unfinished);
+        out.printf("%.0f games/sec, %.0f plies/sec, %.1f MB/s%n", games / seconds, plies / seconds, bytes / 1e6 / seconds);
+    }
+}
@@ -0,0 +1,448 @@
+package Batch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import Board.*;
+import Controller.PieceColor;
+import Pgn.PgnGame;
+import Pgn.PgnReader;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Replays whole archives of games and checks every move with ChessBoard.movePiece, the
+ * same check the game makes. The calling thread cuts the input into chunks of whole games
+ * and a pool of workers replays them, each game on a board that only its worker touches.
+ * Only a few chunks are waiting at any time, so memory stays the same however large the
+ * input is, and the reports are added up in input order, so the output does not depend on
+ * the scheduling.
+ *
+ * Games are read in PGN, or in the coordinate format that Chess.main reads: one move per
+ * line, such as "e2 e4" or "e7 e8 N", with "resign", "draw?" and "draw" as in the game, an
+ * optional first line "fen" followed by the starting position, # comment lines, and a
+ * blank line between games.
+ *
+ * Usage:
+ *   java Batch.BatchValidator path...               replays every game of the files, of every file under the
+ *                                                   directories, or of standard input for -, and prints the
+ *                                                   invalid games, the results and the throughput
+ *   java -Dthreads=4 Batch.BatchValidator path...   does the same with 4 workers (all cores by default)
+ */
+
+public class BatchValidator implements AutoCloseable {
+
+    // how large a chunk grows before it is cut at the next game
+    private static final int CHUNK_SIZE = 1 << 18;
+    // chunks waiting for or being replayed, per worker
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final ExecutorService pool;
+    private final int threads;
+
+    /**
+     * Creates a validator with its own pool of workers
+     * @param threads   the number of worker threads
+     */
+    public BatchValidator(int threads) {
+        this.threads = threads;
+        pool = Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * Replays the games of a file, or of every regular file under a directory in name order.
+     * The chunks of all the files go through one pipeline, so the workers stay busy even
+     * when each file holds only a few games.
+     * @param path  the file or directory
+     * @return      Returns the report of all the games
+     * @throws IOException if a file cannot be read
+     */
+    public BatchReport validate(Path path) throws IOException {
+        List<Path> files;
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> walk = Files.walk(path)) {
+                files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+        } else {
+            files = List.of(path);
+        }
+        Pipeline pipeline = new Pipeline();
+        try {
+            for (Path file : files) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    pipeline.feed(in, file.toString());
+                }
+            }
+            return pipeline.finish();
+        } finally {
+            pipeline.cancel();
+        }
+    }
+
+    /**
+     * Replays the games of a stream
+     * @param in        the stream of games, in PGN or the coordinate format
+     * @param source    the name of the stream, used in error messages
+     * @return          Returns the report of all the games
+     * @throws IOException if the stream cannot be read
+     */
+    public BatchReport validate(InputStream in, String source) throws IOException {
+        Pipeline pipeline = new Pipeline();
+        try {
+            pipeline.feed(in, source);
+            return pipeline.finish();
+        } finally {
+            pipeline.cancel();
+        }
+    }
+
+    /**
+     * The chunks handed to the workers and not yet added to the report, across any number of
+     * inputs. At most CHUNKS_PER_THREAD per worker are pending, and their reports are added
+     * in the order the chunks were read.
+     */
+    private final class Pipeline {
+        private final BatchReport report = new BatchReport();
+        private final ArrayDeque<Future<BatchReport>> pending = new ArrayDeque<>();
+        // the source of each pending chunk, for error messages
+        private final ArrayDeque<String> sources = new ArrayDeque<>();
+
+        /**
+         * Cuts a stream into chunks and hands them to the workers, waiting for the oldest
+         * chunk whenever too many are pending
+         */
+        void feed(InputStream in, String source) throws IOException {
+            GameSplitter splitter = new GameSplitter(in, source, CHUNK_SIZE);
+            GameChunk chunk;
+            while ((chunk = splitter.next()) != null) {
+                GameChunk work = chunk;
+                pending.add(pool.submit(() -> replay(work)));
+                sources.add(source);
+                // wait for the oldest chunk rather than read ahead without limit
+                while (pending.size() >= threads * CHUNKS_PER_THREAD) {
+                    takeOldest();
+                }
+            }
+        }
+
+        /**
+         * Waits for every pending chunk
+         * @return  Returns the report of all the games fed
+         */
+        BatchReport finish() throws IOException {
+            while (!pending.isEmpty()) {
+                takeOldest();
+            }
+            return report;
+        }
+
+        /**
+         * Cancels the chunks still pending, after an error
+         */
+        void cancel() {
+            for (Future<BatchReport> future : pending) {
+                future.cancel(true);
+            }
+            pending.clear();
+            sources.clear();
+        }
+
+        private void takeOldest() throws IOException {
+            String source = sources.poll();
+            try {
+                report.add(pending.poll().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("validation of " + source + " was interrupted");
+            } catch (ExecutionException e) {
+                throw new IOException("could not replay " + source, e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Gets the number of worker threads
+     * @return  Returns the size of the pool
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Shuts the worker threads down
+     */
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Replays every game of a chunk
+     * @param chunk     the chunk of whole games
+     * @return          Returns the report of the chunk
+     * @throws IOException never, as the chunk is already in memory
+     */
+    private static BatchReport replay(GameChunk chunk) throws IOException {
+        BatchReport report = new BatchReport();
+        report.addBytes(chunk.length);
+        if (chunk.pgn) {
+            replayPgn(chunk, report);
+        } else {
+            new CoordinateGame(chunk, report).replayAll();
+        }
+        return report;
+    }
+
+    private static void replayPgn(GameChunk chunk, BatchReport report) throws IOException {
+        PgnReader reader = new PgnReader(chunk.data, 0, chunk.length);
+        PgnGame game = new PgnGame();
+        int number = chunk.firstGame;
+        while (reader.nextGame(game)) {
+            String result = game.getResult();
+            if (!game.isValid()) {
+                report.addError(chunk.source, number, game.getError());
+            } else {
+                // a result the final position forces has to be the one the game gives
+                String forced = forcedResult(reader.getBoard());
+                if (forced != null && !PgnGame.UNKNOWN.equals(result) && !forced.equals(result)) {
+                    report.addError(chunk.source, number, "result " + result + " but the final position is " + forced);
+                }
+                if (forced != null) {
+                    result = forced;
+                }
+            }
+            report.addGame(result, game.getMoveCount());
+            number++;
+        }
+    }
+
+    /**
+     * Gets the result that the position on a board forces, whoever claims what
+     * @param board     the board
+     * @return          Returns the result for checkmate, stalemate or insufficient material, or null
+     */
+    static String forcedResult(ChessBoard board) {
+        PieceColor toMove = board.getCurrentPlayer();
+        if (board.isCheckmate(toMove)) {
+            return toMove == PieceColor.WHITE ? PgnGame.BLACK_WINS : PgnGame.WHITE_WINS;
+        }
+        if (board.isStalemate(toMove) || board.isInsufficientMaterial()) {
+            return PgnGame.DRAW;
+        }
+        return null;
+    }
+
+    /**
+     * Replays the games of a chunk in the coordinate format, one line at a time, following
+     * the rules of Chess.main: the game is over as soon as a player is mated or stalemated
+     * or a draw rule applies, and a player who is offered a draw can only accept it.
+     */
+    private static final class CoordinateGame {
+        private final GameChunk chunk;
+        private final BatchReport report;
+        private final byte[] data;
+        private final MoveParser parser = new MoveParser();
+        // start and end of up to three tokens of the current line
+        private final int[] tokens = new int[6];
+        private int tokenCount;
+        private ChessBoard board;
+        private int number;
+        private boolean inGame;
+        private boolean mustDraw;
+        private int plies;
+        private String result;
+        private String error;
+
+        CoordinateGame(GameChunk chunk, BatchReport report) {
+            this.chunk = chunk;
+            this.report = report;
+            this.data = chunk.data;
+            this.number = chunk.firstGame;
+        }
+
+        void replayAll() {
+            int start = 0;
+            while (start < chunk.length) {
+                int end = start;
+                while (end < chunk.length && data[end] != '\n') {
+                    end++;
+                }
+                line(start, end);
+                start = end + 1;
+            }
+            if (inGame) {
+                finish();
+            }
+        }
+
+        private void line(int start, int end) {
+            tokenize(start, end);
+            if (tokenCount == 0) {
+                if (inGame) {
+                    finish();
+                }
+                return;
+            }
+            if (data[tokens[0]] == '#') {
+                return;
+            }
+            if (!inGame) {
+                begin();
+                if (is(0, "fen")) {
+                    try {
+                        board.loadFen(tokenCount > 1 ? text(tokens[2], end) : "");
+                    } catch (IllegalArgumentException e) {
+                        error = "invalid FEN: " + text(start, end);
+                    }
+                    return;
+                }
+            }
+            if (error != null) {
+                return;
+            }
+            if (result != null || (result = gameOver()) != null) {
+                error = "move after the game ended " + result + ": " + text(start, end);
+                return;
+            }
+            play(start, end);
+        }
+
+        private void play(int start, int end) {
+            PieceColor player = board.getCurrentPlayer();
+            int parsed = board.parseMove(parser, data, start, end);
+            if (parsed == MoveParser.RESIGN) {
+                result = player == PieceColor.WHITE ? PgnGame.BLACK_WINS : PgnGame.WHITE_WINS;
+                return;
+            }
+            if (parsed == MoveParser.DRAW && board.isDrawOffered(player)) {
+                result = PgnGame.DRAW;
+                return;
+            }
+            if (parsed != MoveParser.MOVE || mustDraw || !board.movePiece(parser.getMove())) {
+                String reason = parsed < 0 ? MoveParser.describe(parsed) : "illegal move";
+                error = reason + " " + text(start, end) + " at ply " + (plies + 1);
+                return;
+            }
+            if (parser.offersDraw()) {
+                board.setDrawOffered(true, player);
+            }
+            board.nextPlayer();
+            mustDraw = parser.offersDraw();
+            plies++;
+        }
+
+        private void begin() {
+            if (board == null) {
+                board = new ChessBoard();
+            } else {
+                board.initializeBoard();
+            }
+            inGame = true;
+            mustDraw = false;
+            plies = 0;
+            result = null;
+            error = null;
+        }
+
+        private void finish() {
+            if (error != null) {
+                report.addError(chunk.source, number, error);
+            } else if (result == null) {
+                result = gameOver();
+            }
+            report.addGame(result != null ? result : PgnGame.UNKNOWN, plies);
+            inGame = false;
+            number++;
+        }
+
+        /**
+         * Checks the position the way Chess.main does before every move
+         * @return  Returns the result if the game is over, or null
+         */
+        private String gameOver() {
+            String forced = forcedResult(board);
+            if (forced != null) {
+                return forced;
+            }
+            if (board.isThreefoldRepetition() || board.isFiftyMoveDraw()) {
+                return PgnGame.DRAW;
+            }
+            return null;
+        }
+
+        private void tokenize(int start, int end) {
+            tokenCount = 0;
+            int i = start;
+            while (tokenCount < 3) {
+                while (i < end && isSpace(data[i])) {
+                    i++;
+                }
+                if (i == end) {
+                    return;
+                }
+                tokens[2 * tokenCount] = i;
+                while (i < end && !isSpace(data[i])) {
+                    i++;
+                }
+                tokens[2 * tokenCount + 1] = i;
+                tokenCount++;
+            }
+        }
+
+        private boolean is(int token, String word) {
+            if (token >= tokenCount) {
+                return false;
+            }
+            int start = tokens[2 * token];
+            int length = tokens[2 * token + 1] - start;
+            if (length != word.length()) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (Character.toLowerCase(data[start + i]) != word.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String text(int start, int end) {
+            return new String(data, start, end - start, StandardCharsets.UTF_8).trim();
+        }
+
+        private static boolean isSpace(byte b) {
+            return b == ' ' || b == '\t' || b == '\r' || b == '\f';
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("usage: java [-Dthreads=n] Batch.BatchValidator path...   (- for standard input)");
+            return;
+        }
+        int threads = Integer.getInteger("threads", Runtime.getRuntime().availableProcessors());
+        BatchReport report = new BatchReport();
+        long start = System.nanoTime();
+        try (BatchValidator validator = new BatchValidator(threads)) {
+            for (String arg : args) {
+                report.add(arg.equals("-") ? validator.validate(System.in, "stdin") : validator.validate(Paths.get(arg)));
+            }
+        }
+        report.print(System.out, System.nanoTime() - start, threads);
+        if (report.getInvalidGames() > 0) {
+            System.exit(1);
+        }
+    }
+}
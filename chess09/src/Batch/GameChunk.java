@@ -0,0 +1,30 @@
+package Batch;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * A slice of an input holding only whole games. It is the unit of work handed to a worker,
+ * which owns the bytes from then on.
+ */
+
+final class GameChunk {
+
+    /** The name of the input the games come from */
+    final String source;
+    /** True if the games are PGN, false if they are in the coordinate format */
+    final boolean pgn;
+    /** The number of the first game of the chunk within its input, counting from 1 */
+    final int firstGame;
+    /** The text of the games */
+    final byte[] data;
+    /** The number of bytes of text in data */
+    final int length;
+
+    GameChunk(String source, boolean pgn, int firstGame, byte[] data, int length) {
+        this.source = source;
+        this.pgn = pgn;
+        this.firstGame = firstGame;
+        this.data = data;
+        this.length = length;
+    }
+}
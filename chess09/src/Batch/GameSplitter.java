@@ -0,0 +1,155 @@
+package Batch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Cuts a stream of games into chunks of roughly a fixed size without splitting a game. It
+ * only looks at where lines start: in PGN a game starts with a tag line that follows
+ * movetext, and in the coordinate format a game starts with the first line after a blank
+ * one. The format is taken from the first line that is not blank or a # comment: PGN if it
+ * starts with a tag, comment or move number, the coordinate format otherwise.
+ */
+
+final class GameSplitter {
+    private static final int READ_SIZE = 1 << 16;
+
+    private final InputStream in;
+    private final String source;
+    private final int chunkSize;
+    private byte[] data;
+    private int length;
+    // start of the first line not looked at yet
+    private int scanned;
+    private boolean endOfInput;
+    private int format = UNKNOWN;
+    private int games;
+    private int chunkFirstGame = 1;
+    private boolean previousBlank = true;
+    private boolean previousTag;
+
+    private static final int UNKNOWN = 0;
+    private static final int PGN = 1;
+    private static final int COORDINATE = 2;
+
+    /**
+     * Creates a splitter
+     * @param in            the stream of games
+     * @param source        the name of the stream, for reports
+     * @param chunkSize     the size a chunk grows to before it is cut at the next game
+     */
+    GameSplitter(InputStream in, String source, int chunkSize) {
+        this.in = in;
+        this.source = source;
+        this.chunkSize = chunkSize;
+        data = new byte[chunkSize + READ_SIZE];
+    }
+
+    /**
+     * Reads the next chunk of games
+     * @return      Returns the chunk, or null if there are no more games
+     * @throws IOException if the stream cannot be read
+     */
+    GameChunk next() throws IOException {
+        while (true) {
+            int end;
+            while ((end = indexOf('\n', scanned)) >= 0) {
+                int start = scanned;
+                scanned = end + 1;
+                if (startsGame(start, end) && start >= chunkSize) {
+                    return cut(start);
+                }
+            }
+            if (endOfInput) {
+                if (scanned < length) {
+                    // the last line has no line break
+                    startsGame(scanned, length);
+                    scanned = length;
+                }
+                return games >= chunkFirstGame ? cut(length) : null;
+            }
+            fill();
+        }
+    }
+
+    private GameChunk cut(int at) {
+        int first = chunkFirstGame;
+        // a cut before the end is at the start of a game, which belongs to the next chunk
+        chunkFirstGame = at < length ? games : games + 1;
+        GameChunk chunk = new GameChunk(source, format == PGN, first, data, at);
+        // the chunk keeps the old array, the rest of the text moves to a new one
+        byte[] rest = new byte[Math.max(chunkSize + READ_SIZE, length - at + READ_SIZE)];
+        System.arraycopy(data, at, rest, 0, length - at);
+        data = rest;
+        length -= at;
+        scanned -= at;
+        return chunk;
+    }
+
+    /**
+     * Looks at a line and updates the game count
+     * @param start     the index of the first byte of the line
+     * @param end       the index of the line break
+     * @return          Returns true if a new game starts on the line
+     */
+    private boolean startsGame(int start, int end) {
+        while (start < end && isSpace(data[start])) {
+            start++;
+        }
+        if (start == end) {
+            previousBlank = true;
+            return false;
+        }
+        byte first = data[start];
+        if (format == UNKNOWN) {
+            if (first == '#') {
+                return false;
+            }
+            boolean pgn = first == '[' || first == '{' || first == ';' || first == '%' || (first >= '0' && first <= '9');
+            format = pgn ? PGN : COORDINATE;
+        }
+        boolean starts;
+        if (format == PGN) {
+            starts = games == 0 || (first == '[' && !previousTag);
+            previousTag = first == '[';
+        } else {
+            if (first == '#') {
+                return false;
+            }
+            starts = previousBlank;
+        }
+        previousBlank = false;
+        if (starts) {
+            games++;
+        }
+        return starts;
+    }
+
+    private void fill() throws IOException {
+        if (data.length - length < READ_SIZE) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + READ_SIZE));
+        }
+        int n = in.read(data, length, data.length - length);
+        if (n < 0) {
+            endOfInput = true;
+        } else {
+            length += n;
+        }
+    }
+
+    private int indexOf(int b, int from) {
+        for (int i = from; i < length; i++) {
+            if (data[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\f';
+    }
+}
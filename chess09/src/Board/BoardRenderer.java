@@ -0,0 +1,155 @@
+package Board;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Keeps the text of a board, in the layout of ChessBoard.toString(), and brings it up to
+ * date square by square. The squares that changed since the last update are found by
+ * comparing the twelve piece bitboards with the ones last drawn, so a move costs a few
+ * XORs and redrawing the two to four squares it touched, instead of building the whole
+ * grid again. The changed squares can also be written as a compact diff, such as
+ * "e2=- e4=wP", for clients that keep their own copy of the board.
+ *
+ * A renderer is not safe to share between threads.
+ */
+
+public final class BoardRenderer {
+    private static final int SQUARE_WIDTH = 3;
+    // eight squares, the row number and a line break
+    private static final int ROW_LENGTH = 8 * SQUARE_WIDTH + 2;
+    private static final String FILES = " a  b  c  d  e  f  g  h";
+    private static final String PIECE_LETTERS = "PNBRQK";
+
+    private final char[] text = new char[8 * ROW_LENGTH + FILES.length()];
+    // the piece bitboards the text was last drawn from
+    private final long[] drawn = new long[12];
+    private long changed;
+    // the text as a string, made again only after a square changes
+    private String string;
+
+    /**
+     * Creates a renderer showing an empty board
+     */
+    public BoardRenderer() {
+        for (int row = 7; row >= 0; row--) {
+            int start = (7 - row) * ROW_LENGTH;
+            for (int col = 0; col < 8; col++) {
+                drawSquare(Position.square(row, col), Position.EMPTY);
+            }
+            text[start + 8 * SQUARE_WIDTH] = (char) ('1' + row);
+            text[start + 8 * SQUARE_WIDTH + 1] = '\n';
+        }
+        FILES.getChars(0, FILES.length(), text, 8 * ROW_LENGTH);
+    }
+
+    /**
+     * Redraws the squares whose piece differs from the last update
+     * @param position  the position to show
+     * @return          Returns the set of squares that changed, as a bitboard
+     */
+    public long update(Position position) {
+        long diff = 0L;
+        for (int piece = 0; piece < 12; piece++) {
+            long now = position.getPieces(piece);
+            diff |= now ^ drawn[piece];
+            drawn[piece] = now;
+        }
+        for (long squares = diff; squares != 0L; squares &= squares - 1) {
+            int sq = Long.numberOfTrailingZeros(squares);
+            drawSquare(sq, position.pieceAt(sq));
+        }
+        changed = diff;
+        if (diff != 0L) {
+            string = null;
+        }
+        return diff;
+    }
+
+    /**
+     * Gets the squares the last update changed
+     * @return  Returns the set of changed squares, as a bitboard
+     */
+    public long getChanged() {
+        return changed;
+    }
+
+    /**
+     * Appends the whole board
+     * @param sb    the builder to append to
+     */
+    public void appendTo(StringBuilder sb) {
+        sb.append(toString());
+    }
+
+    /**
+     * Appends the squares the last update changed, in square order, each as its name, an
+     * equals sign and the piece on it, or a dash if it is now empty: "e2=- e4=wP". Nothing is
+     * appended if no square changed.
+     * @param sb    the builder to append to
+     */
+    public void appendDiff(StringBuilder sb) {
+        appendDiff(sb, changed);
+    }
+
+    /**
+     * Appends some squares of the board in the compact diff form
+     * @param sb        the builder to append to
+     * @param squares   the squares to write, as a bitboard
+     */
+    public void appendDiff(StringBuilder sb, long squares) {
+        boolean first = true;
+        for (; squares != 0L; squares &= squares - 1) {
+            int sq = Long.numberOfTrailingZeros(squares);
+            if (!first) {
+                sb.append(' ');
+            }
+            first = false;
+            Move.appendSquare(sb, sq);
+            sb.append('=');
+            int piece = pieceOn(sq);
+            if (piece == Position.EMPTY) {
+                sb.append('-');
+            } else {
+                sb.append(Position.colorOf(piece) == Position.WHITE ? 'w' : 'b')
+                        .append(PIECE_LETTERS.charAt(Position.typeOf(piece)));
+            }
+        }
+    }
+
+    /**
+     * Gets the whole board
+     * @return  Returns the board text, the same as ChessBoard.toString() gives
+     */
+    @Override
+    public String toString() {
+        if (string == null) {
+            string = new String(text);
+        }
+        return string;
+    }
+
+    private int pieceOn(int sq) {
+        long bit = 1L << sq;
+        for (int piece = 0; piece < 12; piece++) {
+            if ((drawn[piece] & bit) != 0L) {
+                return piece;
+            }
+        }
+        return Position.EMPTY;
+    }
+
+    private void drawSquare(int sq, int piece) {
+        int row = sq >>> 3;
+        int col = sq & 7;
+        int at = (7 - row) * ROW_LENGTH + col * SQUARE_WIDTH;
+        if (piece == Position.EMPTY) {
+            char fill = (row + col) % 2 == 0 ? ' ' : '#';
+            text[at] = fill;
+            text[at + 1] = fill;
+        } else {
+            text[at] = Position.colorOf(piece) == Position.WHITE ? 'w' : 'b';
+            text[at + 1] = PIECE_LETTERS.charAt(Position.typeOf(piece));
+        }
+        text[at + 2] = ' ';
+    }
+}
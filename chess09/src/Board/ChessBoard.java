@@ -13,6 +13,10 @@ import Controller.*;
 public class ChessBoard {
     private final int BOARD_SIZE = 8;
     private ChessPiece[][] board;
+    private final Position position = new Position();
+    private final MoveList moves = new MoveList();
+    private final BoardRenderer renderer = new BoardRenderer();
+    private Pawn enPassantPawn;
     private PieceColor currentPlayer;
     private boolean drawOfferedWhite;
     private boolean drawOfferedBlack;
@@ -55,11 +59,6 @@ public class ChessBoard {
         board[7][6] = new Knight(7, 6, PieceColor.BLACK);
         board[7][7] = new Rook(7, 7, PieceColor.BLACK);
 
-        board[6][1] = new Knight(6, 1, PieceColor.BLACK);
-        board[6][2] = new Bishop(6, 2, PieceColor.BLACK);
-        board[6][3] = new Queen(6, 3, PieceColor.BLACK);
-        board[6][5] = new Bishop(6, 5, PieceColor.BLACK);
-        board[6][6] = new Knight(6, 6, PieceColor.BLACK);
         for (int i = 0; i < 8; i++) {
             board[6][i] = new Pawn(6, i, PieceColor.BLACK);
         }
@@ -73,6 +72,71 @@ public class ChessBoard {
     
         // Initialize other variables
         currentPlayer = PieceColor.WHITE;
+        enPassantPawn = null;
+        drawOfferedWhite = false;
+        drawOfferedBlack = false;
+        syncPosition();
+    }
+
+    /**
+     * Sets the board up from a FEN record, replacing the current game. The side to move,
+     * castling rights, en passant square and move counters are all taken from the record.
+     * If the record is invalid the board is left as it was.
+     * @param fen       the FEN text
+     * @throws IllegalArgumentException if the text is not a valid FEN record
+     * @see Fen
+     */
+    public void loadFen(CharSequence fen) {
+        Position loaded = new Position();
+        Fen.parse(fen, loaded);
+        position.copyFrom(loaded);
+
+        int rights = position.getCastlingRights();
+        int ep = position.getEnPassantSquare();
+        enPassantPawn = null;
+        for (int row = 0; row < BOARD_SIZE; row++) {
+            for (int col = 0; col < BOARD_SIZE; col++) {
+                int code = position.pieceAt(Position.square(row, col));
+                if (code == Position.EMPTY) {
+                    board[row][col] = null;
+                    continue;
+                }
+                int type = Position.typeOf(code);
+                boolean white = Position.colorOf(code) == Position.WHITE;
+                ChessPiece piece = createPiece(type, row, col, white ? PieceColor.WHITE : PieceColor.BLACK);
+                // pieces that still have a castling right, and pawns on their starting row, have not moved
+                int home = white ? 0 : 7;
+                if (type == Position.PAWN) {
+                    piece.setMoved(row != (white ? 1 : 6));
+                } else if (type == Position.KING && row == home && col == 4) {
+                    piece.setMoved((rights & (white ? 3 : 12)) == 0);
+                } else if (type == Position.ROOK && row == home && (col == 0 || col == 7)) {
+                    int right = col == 7 ? Position.WHITE_KINGSIDE : Position.WHITE_QUEENSIDE;
+                    piece.setMoved((rights & (white ? right : right << 2)) == 0);
+                }
+                board[row][col] = piece;
+            }
+        }
+        if (ep >= 0) {
+            // the pawn that just made its double push stands one row past the en passant square
+            ChessPiece pushed = board[(ep >>> 3) == 2 ? 3 : 4][ep & 7];
+            if (pushed instanceof Pawn) {
+                enPassantPawn = (Pawn) pushed;
+                enPassantPawn.setEnPassant(true);
+            }
+        }
+        currentPlayer = position.getSideToMove() == Position.WHITE ? PieceColor.WHITE : PieceColor.BLACK;
+        drawOfferedWhite = false;
+        drawOfferedBlack = false;
+    }
+
+    /**
+     * Writes the current position as a FEN record
+     * @return      Returns the FEN text of the board, including the side to move, castling
+     *              rights, en passant square and move counters
+     */
+    public String toFen() {
+        return Fen.format(position);
     }
     
     /**
@@ -81,21 +145,13 @@ public class ChessBoard {
 	 * @return      returns if there is no possible move that can save the king
 	 */
     public boolean isCheck(PieceColor color) {
-        // Find the king of the given color
-        ChessPiece king = findKing(color);
-        if (king == null) {
+        int king = position.kingSquare(colorIndex(color));
+        if (king < 0) {
             // Shouldn't happen if the game is set up correctly
             return false;
         }
         // Check if any enemy piece can attack the king
-        List<ChessPiece> pieces = getPieces(getOtherPlayer());
-        for (ChessPiece piece : pieces) {
-            if (piece.isValidMove(king.getRow(), king.getCol(), board)) {
-                return true;
-            }
-        }
-        // The king is not in check
-        return false;
+        return position.isSquareAttacked(king, colorIndex(color.opposite()));
     }
     /**
 	 * Checks if the King of the given piece color is in checkmate
@@ -108,54 +164,57 @@ public class ChessBoard {
             return false;
         }
     
-        // Check if any piece can block the check or capture the threatening piece
-        List<ChessPiece> pieces = getPieces(color);
-        for (ChessPiece piece : pieces) {
-            for (int row = 0; row < BOARD_SIZE; row++) {
-                for (int col = 0; col < BOARD_SIZE; col++) {
-                    if (piece.isValidMove(row, col, board)) {
-                        // Try the move and see if it gets the king out of check
-                        int oR = piece.getRow();
-                        int oC = piece.getCol();
-                        ChessPiece capturedPiece = board[row][col];
-                        piece.setRow(row);
-                        piece.setCol(col);
-                        board[row][col] = piece;
-                        boolean kingStillInCheck = isCheck(color);
-                        piece.setRow(oR);
-                        piece.setCol(oC);
-                        board[oR][oC] = piece;
-                        board[row][col] = capturedPiece;
-                        if (piece != null && !kingStillInCheck) {
-                            // The piece can block the check or capture the threatening piece, so it's not checkmate
-                            return false;
-                        }
-                    }
-                }
-            }
-        }
-        // If no piece can move to prevent checkmate, then it's checkmate
-        return true;
+        // Check if any legal move blocks the check or captures the threatening piece
+        return !hasLegalMove(color);
     }
     
+    /**
+	 * Checks if the given color is stalemated: it is not in check but has no legal move
+     * @param color     the color of the chess piece
+	 * @return          returns true if the game is drawn by stalemate
+	 */
+    public boolean isStalemate(PieceColor color) {
+        return !isCheck(color) && !hasLegalMove(color);
+    }
+
+    /**
+     * Checks if neither player has enough pieces left to deliver checkmate
+     * @return          Returns true if the game is drawn by insufficient material
+     */
+    public boolean isInsufficientMaterial() {
+        return position.isInsufficientMaterial();
+    }
+
+    /**
+     * Checks if the current position has occurred three times with the same player to move,
+     * the same castling rights and the same en passant square. Positions are compared by
+     * their Zobrist keys, going back no further than the last capture or pawn move.
+     * @return          Returns true if the game is drawn by threefold repetition
+     */
+    public boolean isThreefoldRepetition() {
+        return position.repetitionCount() >= 3;
+    }
+
+    /**
+     * Checks if fifty moves by each player have been played without a capture or a pawn move
+     * @return          Returns true if the game is drawn by the fifty-move rule
+     */
+    public boolean isFiftyMoveDraw() {
+        return position.getHalfmoveClock() >= 100;
+    }
+
     /**
      * finds the king of the given chess piece color on the board
      * @param color     the color of the chess piece
 	 * @return          returns the king piece (object) by searching through the normal board based on the color
 	 */
     public King findKing(PieceColor color) {
-        // Loop through the board to find the king
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                ChessPiece piece = board[i][j];
-                if (piece instanceof King && piece.getColor() == color) {
-                    // Found the king
-                    return (King) piece;
-                }
-            }
+        int sq = position.kingSquare(colorIndex(color));
+        if (sq < 0) {
+            // King not found
+            return null;
         }
-        // King not found
-        return null;
+        return (King) board[sq >>> 3][sq & 7];
     }
 
     /**
@@ -164,22 +223,20 @@ public class ChessBoard {
 	 * @return          returns all the pieces of a color that are still alive on the board as List of ChessPieces
 	 */
     public List<ChessPiece> getPieces(PieceColor color) {
-        List<ChessPiece> pieces = new ArrayList<>();
-    
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                ChessPiece piece = board[row][col];
-                if (piece != null && piece.getColor() == color) {
-                    pieces.add(piece);
-                }
-            }
+        long mask = position.getColor(colorIndex(color));
+        List<ChessPiece> pieces = new ArrayList<>(Long.bitCount(mask));
+        while (mask != 0L) {
+            int sq = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            pieces.add(board[sq >>> 3][sq & 7]);
         }
-    
         return pieces;
     }
 
     /**
-	 * Gets a copy of the chessboard
+	 * Gets a copy of the chessboard. Only the array is copied: the pieces in it are the live
+     * pieces of this board, so changing one changes the game. Use snapshot() for a copy that
+     * can be kept or handed to another thread.
 	 * @return      Returns a copy of the current board's game state as a 2D array
 	 */
     public ChessPiece[][] getBoardCopy() {
@@ -210,15 +267,7 @@ public class ChessBoard {
         }
         
         // Check if any enemy piece can attack the king
-        List<ChessPiece> pieces = getPieces(getOtherPlayer());
-        for (ChessPiece piece : pieces) {
-            if (piece.isValidMove(king.getRow(), king.getCol(), board)) {
-                return true;
-            }
-        }
-        
-        // The king is not in check
-        return false;
+        return Attacks.isSquareAttacked(king.getRow(), king.getCol(), color.opposite(), board);
     }
 
     /**
@@ -249,13 +298,7 @@ public class ChessBoard {
      * @return          returns true if an opponent piece can attack a square. returns false if no piece can attack the square
      */
     public boolean isAttacked(int kingRow, int toCol){
-        List<ChessPiece> pieces = getPieces(getOtherPlayer());
-        for(ChessPiece piece : pieces){
-            if(piece.isValidMove(kingRow, toCol, board)){
-                return true;
-            }
-        }
-        return false;
+        return position.isSquareAttacked(Position.square(kingRow, toCol), colorIndex(getOtherPlayer()));
     }
  
     /**
@@ -267,135 +310,277 @@ public class ChessBoard {
 	 * @return          Returns true if the move indicated by the player can actually be done and moves the piece if possible. False otherwise.
 	 */
     public boolean movePiece(int fromRow, int fromCol, int toRow, int toCol) {
+        //Out of bounds
+        if(fromRow < 0 || fromRow >= 8 || fromCol < 0 || fromCol >= 8
+                || toRow < 0 || toRow>=8 || toCol < 0 || toCol >=8)
+        {
+            return false;
+        }
+
         ChessPiece piece = board[fromRow][fromCol];
         if(piece == null)
             return false;
         
         if(piece.getColor() != getCurrentPlayer())
             return false;
-        
-        //Same spot
-        if(toRow==fromRow && toCol==fromCol)
-        {
-            return false;
-        }
-        
-        //Out of bounds
-        if(toRow < 0 || toRow>=8 || toCol < 0 || toCol >=8)
-        {
+
+        // Look the move up among the legal moves; this covers castling, en passant and
+        // moves that would leave the king in check. Pawns reaching the last row become
+        // queens until promotePiece() says otherwise.
+        int move = findMove(fromRow, fromCol, toRow, toCol, 0);
+        if (move == Move.NONE) {
             return false;
         }
-        // Check if the move is legal
-        if (!piece.isValidMove(toRow, toCol, board)) {
+        applyMove(move);
+        return true;
+    }
+
+    /**
+     * Moves a piece given as a packed move. Only the from square, to square and promotion
+     * piece are looked at, so a move stored with Move.compact() can be played as well. Like
+     * the other movePiece, it does not change the current player; call nextPlayer() after.
+     * @param move      the packed move, with or without its flags
+     * @return          Returns true if the move was legal for the current player and was played
+     * @see Move
+     */
+    public boolean movePiece(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int promotion = Move.promotion(move);
+        int legal = findMove(from >>> 3, from & 7, to >>> 3, to & 7, promotion);
+        if (legal == Move.NONE || Move.promotion(legal) != promotion) {
             return false;
         }
+        applyMove(legal);
+        return true;
+    }
 
-        //check if the move is a castle move
-        if(piece instanceof King && Math.abs(toCol - fromCol) == 2){
-            King king = (King) piece;
-            //kingside castling
-            if(toCol > fromCol ){
-                ChessPiece rook = board[fromRow][7];
-                //if castling is true, then it is reflected on the board
-                if(king.canCastle(fromRow, fromCol, rook, board)){
-                    //if a square is attackable by opponent piece, return false
-                    for(int attackCol = king.getCol() + 1; attackCol < rook.getCol(); attackCol++){
-                        if(isAttacked(king.getRow(), attackCol)){
-                            return false;
-                        }
-                    }
-                }
-                // updating king's position
-                king.setCol(toCol);
-                board[toRow][toCol] = king;
-                board[fromRow][fromCol] = null;
-
-                // updating rook's position
-                rook.setCol(toCol - 1);
-                board[toRow][toCol - 1] = rook;
-                board[fromRow][7] = null;
-            }   //end of kingside castling
-            else{ //queenside castling
-                ChessPiece rook = board[fromRow][0];
-                if(king.canCastle(fromRow, fromCol, rook, board)) {
-                    for(int attackCol = king.getCol() -1; attackCol > rook.getCol(); attackCol--){
-                        if(isAttacked(king.getRow(), attackCol)){
-                            return false;
-                        }
-                    }
-                }
-                // updating king's position
-                king.setCol(toCol);
-                board[toRow][toCol] = king;
-                board[fromRow][fromCol] = null;
-
-                // updating rook's position
-                rook.setCol(toCol + 1);
-                board[toRow][toCol + 1] = rook;
-                board[fromRow][0] = null;
-            }   //end of queenside castling
-        }   //end of castling check statement
-        
-        //Temporarily make the move and check for checks
-        ChessPiece capturedPiece = board[toRow][toCol];
-        piece.setRow(toRow);
-        piece.setCol(toCol);
-        board[toRow][toCol] = piece;
-        board[fromRow][fromCol] = null;
-        boolean kingInCheck = isCheck(getCurrentPlayer());
-        
-        //Undo the move
-        piece.setRow(fromRow);
-        piece.setCol(fromCol);
-        board[fromRow][fromCol] = piece;
-        board[toRow][toCol] = capturedPiece;
-    
-        if (kingInCheck) {
-            return false;
+    /**
+     * Finds a legal move of the current player, with all of its flags set
+     * @param fromRow       the row of the piece to move
+     * @param fromCol       the column of the piece to move
+     * @param toRow         the row to move to
+     * @param toCol         the column to move to
+     * @param promotion     the piece type a pawn promotes to, or 0 for a queen on a promotion
+     * @return              Returns the packed move, or Move.NONE if there is no such legal move
+     */
+    public int findMove(int fromRow, int fromCol, int toRow, int toCol, int promotion) {
+        if (fromRow < 0 || fromRow >= 8 || fromCol < 0 || fromCol >= 8
+                || toRow < 0 || toRow >= 8 || toCol < 0 || toCol >= 8) {
+            return Move.NONE;
         }
-    
-        //Remove original piece if captureable
-        if(piece.canCapturePiece(toRow, toCol, board))
-        {
-            board[toRow][toCol].setCaptured(true);
-            board[toRow][toCol] = null;
+        position.setSideToMove(colorIndex(currentPlayer));
+        // only the move that matches needs the legality check, not every move of the position
+        MoveGenerator.generatePseudoLegal(position, moves);
+        int from = Position.square(fromRow, fromCol);
+        int to = Position.square(toRow, toCol);
+        int wanted = promotion == 0 ? Position.QUEEN : promotion;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (Move.from(move) == from && Move.to(move) == to
+                    && (Move.promotion(move) == 0 || Move.promotion(move) == wanted)) {
+                return MoveGenerator.isLegal(position, move) ? move : Move.NONE;
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * Finds the legal move of the current player written in Standard Algebraic Notation
+     * @param san       the text holding the move, such as Nf3, exd5 or O-O
+     * @param start     the index of the first character of the move
+     * @param end       the index after the last character of the move
+     * @return          Returns the packed move, or Move.NONE if the text is not exactly one legal move
+     * @see San
+     */
+    public int parseSan(CharSequence san, int start, int end) {
+        position.setSideToMove(colorIndex(currentPlayer));
+        return San.parse(san, start, end, position, moves);
+    }
+
+    /**
+     * Reads a line of move input for the current player, such as "e2 e4", "e7 e8 N", "Nf3"
+     * or "resign". The board is not changed; play the move with movePiece(parser.getMove()).
+     * @param parser    the parser to read with
+     * @param input     the line
+     * @return          Returns MoveParser.MOVE, RESIGN or DRAW, or a negative error code
+     * @see MoveParser
+     */
+    public int parseMove(MoveParser parser, CharSequence input) {
+        position.setSideToMove(colorIndex(currentPlayer));
+        return parser.parse(input, position);
+    }
+
+    /**
+     * Reads a line of ASCII move input for the current player from bytes
+     * @param parser    the parser to read with
+     * @param data      the array holding the line
+     * @param start     the index of the first byte of the line
+     * @param end       the index after the last byte of the line
+     * @return          Returns MoveParser.MOVE, RESIGN or DRAW, or a negative error code
+     */
+    public int parseMove(MoveParser parser, byte[] data, int start, int end) {
+        position.setSideToMove(colorIndex(currentPlayer));
+        return parser.parse(data, start, end, position);
+    }
+
+    /**
+     * Writes a legal move of the current player in Standard Algebraic Notation
+     * @param move      the packed move
+     * @return          Returns the move in SAN, with a + or # suffix if it checks or mates
+     */
+    public String toSan(int move) {
+        position.setSideToMove(colorIndex(currentPlayer));
+        StringBuilder sb = new StringBuilder(8);
+        San.append(sb, move, position, moves);
+        return sb.toString();
+    }
+
+    /**
+     * Gets the number of moves played since the board was set up
+     * @return  Returns the length of the move history
+     */
+    public int getMoveCount() {
+        return position.getPly();
+    }
+
+    /**
+     * Gets a move from the history of the game
+     * @param index     the index of the move, 0 being the first move played
+     * @return          Returns the packed move, with its final promotion piece
+     */
+    public int getMove(int index) {
+        return position.moveAt(index);
+    }    
+
+    /**
+     * Plays a legal move on the bitboards and mirrors it on the ChessPiece objects: moved and
+     * captured pieces, the castling rook, the en passant victim and promotions.
+     * @param move      a legal packed move for the current player
+     */
+    private void applyMove(int move) {
+        int fromRow = Move.from(move) >>> 3;
+        int fromCol = Move.from(move) & 7;
+        int toRow = Move.to(move) >>> 3;
+        int toCol = Move.to(move) & 7;
+        ChessPiece piece = board[fromRow][fromCol];
+
+        position.makeMove(move);
+
+        int victimRow = Move.is(move, Move.EN_PASSANT) ? fromRow : toRow;
+        if (board[victimRow][toCol] != null) {
+            board[victimRow][toCol].setCaptured(true);
+            board[victimRow][toCol] = null;
         }
-    
-        // Move the piece
-        board[toRow][toCol] = piece;
         board[fromRow][fromCol] = null;
-    
-        // Update the piece's position
+        board[toRow][toCol] = piece;
         piece.setRow(toRow);
         piece.setCol(toCol);
-    
-        return true;
-    }    
+        piece.setMoved(true);
+
+        if (Move.is(move, Move.CASTLE)) {
+            int rookFrom = toCol > fromCol ? 7 : 0;
+            int rookTo = toCol > fromCol ? toCol - 1 : toCol + 1;
+            ChessPiece rook = board[fromRow][rookFrom];
+            board[fromRow][rookFrom] = null;
+            board[fromRow][rookTo] = rook;
+            rook.setCol(rookTo);
+            rook.setMoved(true);
+            rook.setCastle(true);
+            piece.setCastle(true);
+        }
+
+        // only the pawn that has just made a double push can be taken en passant
+        if (enPassantPawn != null) {
+            enPassantPawn.setEnPassant(false);
+            enPassantPawn = null;
+        }
+        if (Move.is(move, Move.DOUBLE_PUSH)) {
+            enPassantPawn = (Pawn) piece;
+            enPassantPawn.setEnPassant(true);
+        }
+
+        if (Move.promotion(move) != 0) {
+            board[toRow][toCol] = createPiece(Move.promotion(move), toRow, toCol, piece.getColor());
+        }
+    }
+
+    /**
+     * Checks if the given color has at least one legal move
+     * @param color     the color of the chess piece
+     * @return          Returns true if the color has a legal move
+     */
+    private boolean hasLegalMove(PieceColor color) {
+        int side = position.getSideToMove();
+        position.setSideToMove(colorIndex(color));
+        boolean found = MoveGenerator.hasLegalMove(position, moves);
+        position.setSideToMove(side);
+        return found;
+    }
+
+    /**
+     * Fills the buffer with every legal move of the current player. Nothing on the board is
+     * changed while the moves are generated.
+     * @param moves     the buffer the packed moves are written into
+     * @return          Returns the number of legal moves
+     * @see MoveGenerator
+     */
+    public int getLegalMoves(MoveList moves) {
+        position.setSideToMove(colorIndex(currentPlayer));
+        MoveGenerator.generateLegal(position, moves);
+        return moves.size();
+    }
 
     /**
 	 * Returns the string of the chess board with all the pieces in their respective spots.
+	 * Only the squares that changed since the last call are redrawn.
 	 * @return Returns the string of the chess board with all the pieces in their respective spots. 
 	 */
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        for (int row = 7; row >= 0; row--) {
-            for (int col = 0; col < 8; col++) {
-                if (board[row][col] == null) {
-                    if ((row + col) % 2 == 0) {
-                        sb.append("   ");
-                    } else {
-                        sb.append("## ");
-                    }
-                } else {
-                    sb.append(board[row][col].getSymbol()).append(" ");
-                }
-            }
-            sb.append(row + 1).append("\n");
-        }
-        sb.append(" a  b  c  d  e  f  g  h");
-        return sb.toString();
+        renderer.update(position);
+        return renderer.toString();
     }
-    
+
+    /**
+     * Brings a renderer up to date with this board, redrawing only the squares that changed
+     * since it last showed it
+     * @param renderer  the renderer to update
+     * @return          Returns the set of squares that changed, as a bitboard
+     * @see BoardRenderer
+     */
+    public long render(BoardRenderer renderer) {
+        return renderer.update(position);
+    }
+
+    /**
+     * Gets the Zobrist hash of the position. Two boards with the same pieces on the same
+     * squares, the same player to move, the same castling rights and the same en passant
+     * file have the same hash. It is updated as moves are made, not recomputed.
+     * @return  Returns the 64-bit Zobrist key of the position
+     */
+    public long getZobristKey() {
+        return position.getZobristKey();
+    }
+
+    /**
+     * Takes an immutable snapshot of the current position. It is five longs of data, so it
+     * is cheap to make, compare, hash and share between threads.
+     * @return  Returns a snapshot of the pieces and game state
+     * @see PositionSnapshot
+     */
+    public PositionSnapshot snapshot() {
+        return position.snapshot();
+    }
+
+    /**
+     * Gets a copy of the bitboard position behind this board, for code such as a search that
+     * wants to make and take back moves without touching the board itself
+     * @return  Returns a new position equal to the current one, with the same move history
+     */
+    public Position copyPosition() {
+        return new Position(position);
+    }
+
     /**
 	 * Get the current player
 	 * @return Returns the color of the player
@@ -447,6 +632,9 @@ public class ChessBoard {
     public void nextPlayer()
     {
         currentPlayer = (currentPlayer == PieceColor.WHITE) ? PieceColor.BLACK : PieceColor.WHITE;
+        if (position.getSideToMove() != colorIndex(currentPlayer)) {
+            position.setSideToMove(colorIndex(currentPlayer));
+        }
     }
 
     /**
@@ -458,36 +646,144 @@ public class ChessBoard {
 	 */
     public void promotePiece(int endRow, int endCol, String[] tokens)
     {
-        if(board[endRow][endCol] instanceof Pawn == false)
+        int type = Position.QUEEN;
+        if(tokens.length > 2)
         {
-            return;
-        }
-        if(currentPlayer == PieceColor.BLACK && endRow == 0 || currentPlayer == PieceColor.WHITE && endRow == 7)
-        {
-            board[endRow][endCol] = null;
-            if(tokens.length == 2)
-            {
-                board[endRow][endCol] = new Queen(endRow, endCol, currentPlayer);
-                return;                  
-            }
             switch(tokens[2].toUpperCase())
             {
-                case "Q":
-                    board[endRow][endCol] = new Queen(endRow, endCol, currentPlayer);
-                    break;
                 case "R":
-                    board[endRow][endCol] = new Rook(endRow, endCol, currentPlayer);
+                    type = Position.ROOK;
                     break;
                 case "B":
-                    board[endRow][endCol] = new Bishop(endRow, endCol, currentPlayer);
+                    type = Position.BISHOP;
                     break;
                 case "N":
-                    board[endRow][endCol] = new Knight(endRow, endCol, currentPlayer);
+                    type = Position.KNIGHT;
                     break;
                 default:
-                    board[endRow][endCol] = new Queen(endRow, endCol, currentPlayer);
-                    return;                
+                    type = Position.QUEEN;
+                    break;
             }
         }
+        promotePiece(endRow, endCol, type);
+    }
+
+    /**
+     * Changes the piece a pawn that has just been promoted on the given square becomes
+     * @param endRow        the row the pawn was promoted on
+     * @param endCol        the column the pawn was promoted on
+     * @param type          the piece type to promote to, Position.KNIGHT to Position.QUEEN
+	 */
+    public void promotePiece(int endRow, int endCol, int type)
+    {
+        int move = position.lastMove();
+        if(Move.promotion(move) == 0 || Move.to(move) != Position.square(endRow, endCol)
+                || type < Position.KNIGHT || type > Position.QUEEN)
+        {
+            return;
+        }
+        if(type != Move.promotion(move))
+        {
+            // replay the promotion with the chosen piece
+            position.unmakeMove();
+            position.makeMove(Move.withPromotion(move, type));
+            board[endRow][endCol] = createPiece(type, endRow, endCol, board[endRow][endCol].getColor());
+        }
+    }
+
+    /**
+     * Creates the chess piece object for a promotion
+     * @param type      the piece type, as in Position
+     * @param row       the row of the piece
+     * @param col       the column of the piece
+     * @param color     the color of the piece
+     * @return          Returns the new chess piece
+     */
+    private static ChessPiece createPiece(int type, int row, int col, PieceColor color) {
+        ChessPiece piece;
+        switch (type) {
+            case Position.ROOK:
+                piece = new Rook(row, col, color);
+                break;
+            case Position.BISHOP:
+                piece = new Bishop(row, col, color);
+                break;
+            case Position.KNIGHT:
+                piece = new Knight(row, col, color);
+                break;
+            case Position.PAWN:
+                piece = new Pawn(row, col, color);
+                break;
+            case Position.KING:
+                piece = new King(row, col, color);
+                break;
+            default:
+                piece = new Queen(row, col, color);
+                break;
+        }
+        piece.setMoved(true);
+        return piece;
+    }
+
+    /**
+     * Rebuilds the bitboards from the whole board array. Castling rights are taken from the
+     * kings and rooks that are still unmoved on their starting squares.
+     */
+    private void syncPosition() {
+        position.clear();
+        for (int row = 0; row < BOARD_SIZE; row++) {
+            for (int col = 0; col < BOARD_SIZE; col++) {
+                if (board[row][col] != null) {
+                    position.put(Position.square(row, col), pieceCode(board[row][col]));
+                }
+            }
+        }
+        int rights = 0;
+        if (isUnmoved(0, 4, King.class) && isUnmoved(0, 7, Rook.class)) rights |= Position.WHITE_KINGSIDE;
+        if (isUnmoved(0, 4, King.class) && isUnmoved(0, 0, Rook.class)) rights |= Position.WHITE_QUEENSIDE;
+        if (isUnmoved(7, 4, King.class) && isUnmoved(7, 7, Rook.class)) rights |= Position.BLACK_KINGSIDE;
+        if (isUnmoved(7, 4, King.class) && isUnmoved(7, 0, Rook.class)) rights |= Position.BLACK_QUEENSIDE;
+        position.setCastlingRights(rights);
+        if (position.getSideToMove() != colorIndex(currentPlayer)) {
+            position.setSideToMove(colorIndex(currentPlayer));
+        }
+    }
+
+    private boolean isUnmoved(int row, int col, Class<? extends ChessPiece> type) {
+        ChessPiece piece = board[row][col];
+        return type.isInstance(piece) && !piece.hasMoved()
+                && piece.getColor() == (row == 0 ? PieceColor.WHITE : PieceColor.BLACK);
+    }
+
+    /**
+     * Maps a color to its bitboard index
+     * @param color     the color of the chess piece
+     * @return          Returns Position.WHITE or Position.BLACK
+     */
+    static int colorIndex(PieceColor color) {
+        return color == PieceColor.WHITE ? Position.WHITE : Position.BLACK;
+    }
+
+    /**
+     * Maps a chess piece to its bitboard piece code
+     * @param piece     the chess piece
+     * @return          Returns the piece code (color * 6 + type)
+     */
+    static int pieceCode(ChessPiece piece) {
+        int type;
+        if (piece instanceof Pawn) {
+            type = Position.PAWN;
+        } else if (piece instanceof Knight) {
+            type = Position.KNIGHT;
+        } else if (piece instanceof Bishop) {
+            type = Position.BISHOP;
+        } else if (piece instanceof Rook) {
+            type = Position.ROOK;
+        } else if (piece instanceof Queen) {
+            type = Position.QUEEN;
+        } else {
+            type = Position.KING;
+        }
+        return Position.piece(colorIndex(piece.getColor()), type);
     }
 }
\ No newline at end of file
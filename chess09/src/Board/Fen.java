@@ -0,0 +1,220 @@
+package Board;
+
+import Controller.Attacks;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Reads and writes positions in Forsyth-Edwards Notation (FEN). The text is scanned one
+ * character at a time, so loading a position creates no intermediate strings, and a
+ * record is written into a single StringBuilder.
+ */
+
+public final class Fen {
+
+    /** FEN of the standard starting position */
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final String PIECE_LETTERS = "PNBRQKpnbrqk";
+
+    private Fen() {
+    }
+
+    /**
+     * Loads a FEN record into a position. The halfmove clock and fullmove number are optional
+     * and default to 0 and 1.
+     * @param fen           the FEN text
+     * @param position      the position to overwrite
+     * @throws IllegalArgumentException if the text is not a valid FEN record
+     */
+    public static void parse(CharSequence fen, Position position) {
+        position.clear();
+        int length = fen.length();
+        int i = 0;
+
+        // piece placement, from row 8 down to row 1
+        int row = 7;
+        int col = 0;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (col != 8 || row == 0) {
+                    throw error(fen, "bad row in piece placement");
+                }
+                row--;
+                col = 0;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+            } else {
+                int piece = PIECE_LETTERS.indexOf(c);
+                if (piece < 0 || col > 7) {
+                    throw error(fen, "bad piece placement");
+                }
+                position.put(Position.square(row, col++), piece);
+            }
+        }
+        if (row != 0 || col != 8) {
+            throw error(fen, "piece placement does not cover the board");
+        }
+
+        // side to move
+        i = skipSpaces(fen, i);
+        if (i >= length) {
+            throw error(fen, "missing side to move");
+        }
+        char side = fen.charAt(i++);
+        if (side == 'w') {
+            position.setSideToMove(Position.WHITE);
+        } else if (side == 'b') {
+            position.setSideToMove(Position.BLACK);
+        } else {
+            throw error(fen, "bad side to move");
+        }
+
+        // castling rights
+        i = skipSpaces(fen, i);
+        int rights = 0;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            switch (fen.charAt(i)) {
+                case 'K':
+                    rights |= Position.WHITE_KINGSIDE;
+                    break;
+                case 'Q':
+                    rights |= Position.WHITE_QUEENSIDE;
+                    break;
+                case 'k':
+                    rights |= Position.BLACK_KINGSIDE;
+                    break;
+                case 'q':
+                    rights |= Position.BLACK_QUEENSIDE;
+                    break;
+                case '-':
+                    break;
+                default:
+                    throw error(fen, "bad castling rights");
+            }
+        }
+        position.setCastlingRights(rights);
+
+        // en passant square
+        i = skipSpaces(fen, i);
+        if (i < length && fen.charAt(i) != '-') {
+            if (i + 1 >= length) {
+                throw error(fen, "bad en passant square");
+            }
+            int epCol = fen.charAt(i) - 'a';
+            int epRow = fen.charAt(i + 1) - '1';
+            if (epCol < 0 || epCol > 7 || (epRow != 2 && epRow != 5)) {
+                throw error(fen, "bad en passant square");
+            }
+            int ep = Position.square(epRow, epCol);
+            int mover = position.getSideToMove();
+            int pushed = mover == Position.WHITE ? ep - 8 : ep + 8;
+            // keep the square only if a pawn can capture on it, as Position.makeMove does
+            if (position.pieceAt(pushed) == Position.piece(mover ^ 1, Position.PAWN)
+                    && (Attacks.PAWN[mover ^ 1][ep] & position.getPieces(mover, Position.PAWN)) != 0L) {
+                position.setEnPassantSquare(ep);
+            }
+            i += 2;
+        } else {
+            i++;
+        }
+
+        // move counters
+        i = skipSpaces(fen, i);
+        if (i < length) {
+            int clock = 0;
+            for (; i < length && fen.charAt(i) != ' '; i++) {
+                clock = clock * 10 + digit(fen, i);
+            }
+            position.setHalfmoveClock(clock);
+            i = skipSpaces(fen, i);
+        }
+        if (i < length) {
+            int number = 0;
+            for (; i < length && fen.charAt(i) != ' '; i++) {
+                number = number * 10 + digit(fen, i);
+            }
+            position.setFullmoveNumber(Math.max(number, 1));
+        }
+    }
+
+    /**
+     * Writes a position as a FEN record
+     * @param position  the position to write
+     * @return          Returns the FEN text, including the move counters
+     */
+    public static String format(Position position) {
+        StringBuilder sb = new StringBuilder(90);
+        append(sb, position);
+        return sb.toString();
+    }
+
+    /**
+     * Appends a position as a FEN record to a builder
+     * @param sb        the builder to append to
+     * @param position  the position to write
+     */
+    public static void append(StringBuilder sb, Position position) {
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                int piece = position.pieceAt(Position.square(row, col));
+                if (piece == Position.EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    sb.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                sb.append(PIECE_LETTERS.charAt(piece));
+            }
+            if (empty > 0) {
+                sb.append((char) ('0' + empty));
+            }
+            if (row > 0) {
+                sb.append('/');
+            }
+        }
+
+        sb.append(position.getSideToMove() == Position.WHITE ? " w " : " b ");
+        int rights = position.getCastlingRights();
+        if (rights == 0) {
+            sb.append('-');
+        } else {
+            if ((rights & Position.WHITE_KINGSIDE) != 0) sb.append('K');
+            if ((rights & Position.WHITE_QUEENSIDE) != 0) sb.append('Q');
+            if ((rights & Position.BLACK_KINGSIDE) != 0) sb.append('k');
+            if ((rights & Position.BLACK_QUEENSIDE) != 0) sb.append('q');
+        }
+        sb.append(' ');
+        int ep = position.getEnPassantSquare();
+        if (ep < 0) {
+            sb.append('-');
+        } else {
+            Move.appendSquare(sb, ep);
+        }
+        sb.append(' ').append(position.getHalfmoveClock())
+          .append(' ').append(position.getFullmoveNumber());
+    }
+
+    private static int skipSpaces(CharSequence fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int digit(CharSequence fen, int i) {
+        char c = fen.charAt(i);
+        if (c < '0' || c > '9') {
+            throw error(fen, "bad move counter");
+        }
+        return c - '0';
+    }
+
+    private static IllegalArgumentException error(CharSequence fen, String reason) {
+        return new IllegalArgumentException("Invalid FEN (" + reason + "): " + fen);
+    }
+}
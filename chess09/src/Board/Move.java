@@ -0,0 +1,131 @@
+package Board;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Helpers for moves packed into a single int so they can be stored in primitive arrays.
+ * Bits 0-5 hold the from square, bits 6-11 the to square, bits 12-14 the promotion piece
+ * type (0 when the move is not a promotion) and the bits above that hold the move flags.
+ * The low 15 bits alone identify a move in a given position, so a move can be stored or
+ * sent in 16 bits with compact() and turned back into a full move by ChessBoard.findMove.
+ */
+
+public final class Move {
+
+    /** Flag set when the move takes an enemy piece, including en passant */
+    public static final int CAPTURE = 1 << 15;
+    /** Flag set when a pawn advances two squares from its starting row */
+    public static final int DOUBLE_PUSH = 1 << 16;
+    /** Flag set when a pawn takes a pawn that has just made a double push */
+    public static final int EN_PASSANT = 1 << 17;
+    /** Flag set when the king castles; the from and to squares are the king's */
+    public static final int CASTLE = 1 << 18;
+
+    /** Value used where there is no move */
+    public static final int NONE = 0;
+
+    private Move() {
+    }
+
+    /**
+     * Packs a move
+     * @param from          the square the piece moves from
+     * @param to            the square the piece moves to
+     * @param promotion     the piece type a pawn promotes to, or 0
+     * @param flags         a combination of the move flags
+     * @return              Returns the packed move
+     */
+    public static int of(int from, int to, int promotion, int flags) {
+        return from | (to << 6) | (promotion << 12) | flags;
+    }
+
+    /**
+     * Gets the square a move starts from
+     * @param move      the packed move
+     * @return          Returns the from square
+     */
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    /**
+     * Gets the square a move ends on
+     * @param move      the packed move
+     * @return          Returns the to square
+     */
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * Gets the piece type a pawn promotes to
+     * @param move      the packed move
+     * @return          Returns the promotion piece type, or 0 if the move is not a promotion
+     */
+    public static int promotion(int move) {
+        return (move >>> 12) & 7;
+    }
+
+    /**
+     * Changes the piece type a pawn promotes to
+     * @param move          the packed move
+     * @param promotion     the new promotion piece type
+     * @return              Returns the packed move with the new promotion piece
+     */
+    public static int withPromotion(int move, int promotion) {
+        return (move & ~(7 << 12)) | (promotion << 12);
+    }
+
+    /**
+     * Drops the flags of a move, leaving the from square, to square and promotion piece. The
+     * result fits in a short and identifies the move in the position it is played from.
+     * @param move      the packed move
+     * @return          Returns the move in 15 bits
+     */
+    public static int compact(int move) {
+        return move & 0x7FFF;
+    }
+
+    /**
+     * Writes a move in coordinate notation, such as e2e4 or e7e8q for a promotion
+     * @param move      the packed move
+     * @return          Returns the move in coordinate notation
+     */
+    public static String toCoordinate(int move) {
+        StringBuilder sb = new StringBuilder(5);
+        appendCoordinate(sb, move);
+        return sb.toString();
+    }
+
+    /**
+     * Appends a move in coordinate notation, such as e2e4 or e7e8q for a promotion
+     * @param sb        the builder to append to
+     * @param move      the packed move
+     */
+    public static void appendCoordinate(StringBuilder sb, int move) {
+        appendSquare(sb, from(move));
+        appendSquare(sb, to(move));
+        if (promotion(move) != 0) {
+            sb.append("pnbrqk".charAt(promotion(move)));
+        }
+    }
+
+    /**
+     * Appends the name of a square, such as e4, to a builder
+     * @param sb        the builder to append to
+     * @param square    the square index (row * 8 + col)
+     */
+    static void appendSquare(StringBuilder sb, int square) {
+        sb.append((char) ('a' + (square & 7))).append((char) ('1' + (square >>> 3)));
+    }
+
+    /**
+     * Checks a move flag
+     * @param move      the packed move
+     * @param flag      one of the move flags
+     * @return          Returns true if the flag is set on the move
+     */
+    public static boolean is(int move, int flag) {
+        return (move & flag) != 0;
+    }
+}
@@ -0,0 +1,230 @@
+package Board;
+
+import Controller.Attacks;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Generates the moves of the side to move in a Position. The generator only reads the
+ * position, so any number of threads can generate moves from the same position at once,
+ * and no ChessPiece is ever touched. Moves are written as packed ints into a MoveList.
+ */
+
+public final class MoveGenerator {
+
+    private static final long ROW_3 = 0xFFL << 16;
+    private static final long ROW_6 = 0xFFL << 40;
+    private static final long ROW_1_AND_8 = 0xFF000000000000FFL;
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Generates every move of the side to move that follows the piece movement rules,
+     * including moves that leave the mover's own king in check. Castling is only generated
+     * when the king does not start on, pass through or land on an attacked square.
+     * @param position  the position to generate moves for
+     * @param moves     the buffer the moves are written into. It is cleared first
+     */
+    public static void generatePseudoLegal(Position position, MoveList moves) {
+        moves.clear();
+        int us = position.getSideToMove();
+        int them = us ^ 1;
+        long own = position.getColor(us);
+        long enemy = position.getColor(them);
+        long occupied = own | enemy;
+
+        generatePawnMoves(position, moves, us, enemy, occupied);
+
+        long knights = position.getPieces(us, Position.KNIGHT);
+        while (knights != 0L) {
+            int from = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+            addMoves(moves, from, Attacks.KNIGHT[from] & ~own, enemy);
+        }
+        long diagonal = position.getPieces(us, Position.BISHOP) | position.getPieces(us, Position.QUEEN);
+        while (diagonal != 0L) {
+            int from = Long.numberOfTrailingZeros(diagonal);
+            diagonal &= diagonal - 1;
+            addMoves(moves, from, Attacks.bishop(from, occupied) & ~own, enemy);
+        }
+        long straight = position.getPieces(us, Position.ROOK) | position.getPieces(us, Position.QUEEN);
+        while (straight != 0L) {
+            int from = Long.numberOfTrailingZeros(straight);
+            straight &= straight - 1;
+            addMoves(moves, from, Attacks.rook(from, occupied) & ~own, enemy);
+        }
+        int king = position.kingSquare(us);
+        if (king >= 0) {
+            addMoves(moves, king, Attacks.KING[king] & ~own, enemy);
+            generateCastling(position, moves, us, king, occupied);
+        }
+    }
+
+    /**
+     * Generates every legal move of the side to move
+     * @param position  the position to generate moves for
+     * @param moves     the buffer the moves are written into. It is cleared first
+     */
+    public static void generateLegal(Position position, MoveList moves) {
+        generatePseudoLegal(position, moves);
+        int legal = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (isLegal(position, move)) {
+                moves.set(legal++, move);
+            }
+        }
+        moves.truncate(legal);
+    }
+
+    /**
+     * Checks if the side to move has any legal move. Stops at the first legal move found, so
+     * a position with moves available costs little more than generating them.
+     * @param position  the position to look at
+     * @param moves     a scratch buffer for the pseudo-legal moves
+     * @return          Returns true if the side to move has at least one legal move
+     */
+    public static boolean hasLegalMove(Position position, MoveList moves) {
+        generatePseudoLegal(position, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (isLegal(position, moves.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks that a pseudo-legal move does not leave the mover's king in check. The move is
+     * not played; the occupancy after the move is worked out in local variables instead.
+     * @param position  the position the move is played from
+     * @param move      a pseudo-legal packed move for the side to move
+     * @return          Returns true if the move is legal
+     */
+    public static boolean isLegal(Position position, int move) {
+        if (Move.is(move, Move.CASTLE)) {
+            // the attacked squares were already checked when the castle was generated
+            return true;
+        }
+        int us = position.getSideToMove();
+        int them = us ^ 1;
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int king = position.kingSquare(us);
+        if (king < 0) {
+            return true;
+        }
+        if (king == from) {
+            king = to;
+        }
+
+        long removed = 1L << to;
+        long occupied = (position.getOccupied() & ~(1L << from)) | (1L << to);
+        if (Move.is(move, Move.EN_PASSANT)) {
+            int victim = us == Position.WHITE ? to - 8 : to + 8;
+            removed = 1L << victim;
+            occupied &= ~removed;
+        }
+        long keep = ~removed;
+
+        if ((Attacks.KNIGHT[king] & position.getPieces(them, Position.KNIGHT) & keep) != 0L) {
+            return false;
+        }
+        if ((Attacks.PAWN[us][king] & position.getPieces(them, Position.PAWN) & keep) != 0L) {
+            return false;
+        }
+        if ((Attacks.KING[king] & position.getPieces(them, Position.KING)) != 0L) {
+            return false;
+        }
+        long queens = position.getPieces(them, Position.QUEEN);
+        long diagonal = (position.getPieces(them, Position.BISHOP) | queens) & keep;
+        if ((Attacks.bishop(king, occupied) & diagonal) != 0L) {
+            return false;
+        }
+        long straight = (position.getPieces(them, Position.ROOK) | queens) & keep;
+        return (Attacks.rook(king, occupied) & straight) == 0L;
+    }
+
+    private static void generatePawnMoves(Position position, MoveList moves, int us, long enemy, long occupied) {
+        long pawns = position.getPieces(us, Position.PAWN);
+        long empty = ~occupied;
+        int forward = us == Position.WHITE ? 8 : -8;
+
+        long single = us == Position.WHITE ? (pawns << 8) & empty : (pawns >>> 8) & empty;
+        long twice = us == Position.WHITE ? ((single & ROW_3) << 8) & empty : ((single & ROW_6) >>> 8) & empty;
+        while (single != 0L) {
+            int to = Long.numberOfTrailingZeros(single);
+            single &= single - 1;
+            addPawnMove(moves, to - forward, to, 0);
+        }
+        while (twice != 0L) {
+            int to = Long.numberOfTrailingZeros(twice);
+            twice &= twice - 1;
+            moves.add(Move.of(to - 2 * forward, to, 0, Move.DOUBLE_PUSH));
+        }
+
+        int ep = position.getEnPassantSquare();
+        // the en passant square must sit behind an enemy pawn, which rules out a stale square
+        boolean epValid = ep >= 0 && (ep >>> 3) == (us == Position.WHITE ? 5 : 2);
+        long attackers = pawns;
+        while (attackers != 0L) {
+            int from = Long.numberOfTrailingZeros(attackers);
+            attackers &= attackers - 1;
+            long targets = Attacks.PAWN[us][from];
+            long captures = targets & enemy;
+            while (captures != 0L) {
+                int to = Long.numberOfTrailingZeros(captures);
+                captures &= captures - 1;
+                addPawnMove(moves, from, to, Move.CAPTURE);
+            }
+            if (epValid && (targets & (1L << ep)) != 0L) {
+                moves.add(Move.of(from, ep, 0, Move.CAPTURE | Move.EN_PASSANT));
+            }
+        }
+    }
+
+    private static void addPawnMove(MoveList moves, int from, int to, int flags) {
+        if (((1L << to) & ROW_1_AND_8) != 0L) {
+            moves.add(Move.of(from, to, Position.QUEEN, flags));
+            moves.add(Move.of(from, to, Position.ROOK, flags));
+            moves.add(Move.of(from, to, Position.BISHOP, flags));
+            moves.add(Move.of(from, to, Position.KNIGHT, flags));
+        } else {
+            moves.add(Move.of(from, to, 0, flags));
+        }
+    }
+
+    private static void generateCastling(Position position, MoveList moves, int us, int king, long occupied) {
+        int rights = position.getCastlingRights();
+        int home = us == Position.WHITE ? 4 : 60;
+        if (king != home || (rights & (us == Position.WHITE ? 3 : 12)) == 0) {
+            return;
+        }
+        int them = us ^ 1;
+        int rook = Position.piece(us, Position.ROOK);
+        if (position.isSquareAttacked(king, them)) {
+            return;
+        }
+        int kingside = us == Position.WHITE ? Position.WHITE_KINGSIDE : Position.BLACK_KINGSIDE;
+        if ((rights & kingside) != 0 && position.pieceAt(home + 3) == rook
+                && (occupied & (3L << (home + 1))) == 0L
+                && !position.isSquareAttacked(home + 1, them) && !position.isSquareAttacked(home + 2, them)) {
+            moves.add(Move.of(home, home + 2, 0, Move.CASTLE));
+        }
+        int queenside = us == Position.WHITE ? Position.WHITE_QUEENSIDE : Position.BLACK_QUEENSIDE;
+        if ((rights & queenside) != 0 && position.pieceAt(home - 4) == rook
+                && (occupied & (7L << (home - 3))) == 0L
+                && !position.isSquareAttacked(home - 1, them) && !position.isSquareAttacked(home - 2, them)) {
+            moves.add(Move.of(home, home - 2, 0, Move.CASTLE));
+        }
+    }
+
+    private static void addMoves(MoveList moves, int from, long targets, long enemy) {
+        while (targets != 0L) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves.add(Move.of(from, to, 0, (enemy & (1L << to)) != 0L ? Move.CAPTURE : 0));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package Board;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Reusable buffer of packed moves. The backing array is sized for the largest number of
+ * moves any chess position can have, so filling it never allocates.
+ */
+
+public class MoveList {
+    private static final int CAPACITY = 256;
+
+    private final int[] moves = new int[CAPACITY];
+    private int size;
+
+    /**
+     * Empties the list so it can be filled again
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Appends a move to the list
+     * @param move      the packed move
+     */
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    /**
+     * Gets a move from the list
+     * @param index     the position of the move in the list
+     * @return          Returns the packed move
+     */
+    public int get(int index) {
+        return moves[index];
+    }
+
+    /**
+     * Replaces a move in the list
+     * @param index     the position of the move in the list
+     * @param move      the packed move
+     */
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    /**
+     * Gets the number of moves in the list
+     * @return  Returns the number of moves in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Shrinks the list, dropping the moves past the new size
+     * @param size  the new number of moves in the list
+     */
+    public void truncate(int size) {
+        this.size = size;
+    }
+}
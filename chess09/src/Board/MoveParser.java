@@ -0,0 +1,312 @@
+package Board;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Reads a line of move input, as a player types it to Chess.main, into a legal packed move.
+ * It accepts
+ *
+ *   e2 e4, e7 e8 N         the squares Chess.main reads, with an optional promotion piece (Q by default)
+ *   e2e4, e7e8n            the same squares written together
+ *   Nf3, exd5, O-O, e8=N   Standard Algebraic Notation
+ *   resign, draw           giving up, or accepting a draw offer
+ *
+ * and a move may be followed by "draw?" to offer a draw. Malformed and illegal input is
+ * reported with a negative error code rather than an exception, and nothing is allocated,
+ * so a parser can be kept and reused for every line of a session. A parser is not safe to
+ * share between threads.
+ */
+
+public final class MoveParser {
+
+    /** Result for a move; getMove() returns it */
+    public static final int MOVE = 0;
+    /** Result for resign */
+    public static final int RESIGN = 1;
+    /** Result for draw, accepting a draw offer */
+    public static final int DRAW = 2;
+
+    /** Error for a line with nothing on it */
+    public static final int EMPTY = -1;
+    /** Error for text that is not a move or command */
+    public static final int SYNTAX = -2;
+    /** Error for a promotion piece that is not Q, R, B or N */
+    public static final int BAD_PROMOTION = -3;
+    /** Error for a well formed move that is not legal in the position */
+    public static final int ILLEGAL = -4;
+    /** Error for a SAN move that more than one legal move matches */
+    public static final int AMBIGUOUS = -5;
+    /** Error for a line longer than MAX_LENGTH */
+    public static final int TOO_LONG = -6;
+
+    /** The longest line the parser reads */
+    public static final int MAX_LENGTH = 128;
+
+    private static final String[] ERRORS = { "nothing was entered", "not a move", "unknown promotion piece",
+            "illegal move", "ambiguous move", "input too long" };
+
+    private final char[] text = new char[MAX_LENGTH];
+    // a view of text, so San can read it in place
+    private final CharSequence view = CharBuffer.wrap(text);
+    private final MoveList moves = new MoveList();
+    // start and end of up to four tokens
+    private final int[] tokens = new int[8];
+    private int tokenCount;
+    private int move;
+    private boolean offersDraw;
+
+    /**
+     * Reads a line of input
+     * @param input     the text holding the line
+     * @param start     the index of the first character of the line
+     * @param end       the index after the last character of the line
+     * @param position  the position the move is played from, with the right side to move
+     * @return          Returns MOVE, RESIGN or DRAW, or a negative error code
+     */
+    public int parse(CharSequence input, int start, int end, Position position) {
+        int length = end - start;
+        if (length > MAX_LENGTH) {
+            return fail(TOO_LONG);
+        }
+        for (int i = 0; i < length; i++) {
+            text[i] = input.charAt(start + i);
+        }
+        return decode(length, position);
+    }
+
+    /**
+     * Reads a line of input
+     * @param input     the line
+     * @param position  the position the move is played from, with the right side to move
+     * @return          Returns MOVE, RESIGN or DRAW, or a negative error code
+     */
+    public int parse(CharSequence input, Position position) {
+        return parse(input, 0, input.length(), position);
+    }
+
+    /**
+     * Reads a line of ASCII input from bytes
+     * @param data      the array holding the line
+     * @param start     the index of the first byte of the line
+     * @param end       the index after the last byte of the line
+     * @param position  the position the move is played from, with the right side to move
+     * @return          Returns MOVE, RESIGN or DRAW, or a negative error code
+     */
+    public int parse(byte[] data, int start, int end, Position position) {
+        int length = end - start;
+        if (length > MAX_LENGTH) {
+            return fail(TOO_LONG);
+        }
+        for (int i = 0; i < length; i++) {
+            text[i] = (char) (data[start + i] & 0xFF);
+        }
+        return decode(length, position);
+    }
+
+    /**
+     * Reads a line of ASCII input from the remaining bytes of a buffer. The buffer's
+     * position is not changed.
+     * @param buffer    the buffer holding the line between its position and its limit
+     * @param position  the position the move is played from, with the right side to move
+     * @return          Returns MOVE, RESIGN or DRAW, or a negative error code
+     */
+    public int parse(ByteBuffer buffer, Position position) {
+        int start = buffer.position();
+        int length = buffer.limit() - start;
+        if (length > MAX_LENGTH) {
+            return fail(TOO_LONG);
+        }
+        for (int i = 0; i < length; i++) {
+            text[i] = (char) (buffer.get(start + i) & 0xFF);
+        }
+        return decode(length, position);
+    }
+
+    /**
+     * Gets the move of the last line read
+     * @return  Returns the legal packed move, with its flags, or Move.NONE if the line was not a move
+     */
+    public int getMove() {
+        return move;
+    }
+
+    /**
+     * Checks if the last line read offered a draw along with its move
+     * @return  Returns true if the move was followed by draw?
+     */
+    public boolean offersDraw() {
+        return offersDraw;
+    }
+
+    /**
+     * Describes a result of parse
+     * @param code  the result
+     * @return      Returns a few words saying what the result means, such as "illegal move"
+     */
+    public static String describe(int code) {
+        switch (code) {
+            case MOVE:
+                return "move";
+            case RESIGN:
+                return "resign";
+            case DRAW:
+                return "draw";
+            default:
+                return code < 0 && -code <= ERRORS.length ? ERRORS[-code - 1] : "unknown result " + code;
+        }
+    }
+
+    private int decode(int length, Position position) {
+        move = Move.NONE;
+        offersDraw = false;
+        if (!tokenize(length)) {
+            return SYNTAX;
+        }
+        if (tokenCount == 0) {
+            return EMPTY;
+        }
+        if (tokenCount > 1 && is(tokenCount - 1, "draw?")) {
+            offersDraw = true;
+            tokenCount--;
+        }
+        if (tokenCount == 1) {
+            if (!offersDraw && is(0, "resign")) {
+                return RESIGN;
+            }
+            if (!offersDraw && is(0, "draw")) {
+                return DRAW;
+            }
+            int start = tokens[0];
+            int end = tokens[1];
+            if ((end - start == 4 || end - start == 5) && square(start) >= 0 && square(start + 2) >= 0) {
+                int promotion = end - start == 5 ? promotion(start + 4) : 0;
+                return promotion < 0 ? fail(BAD_PROMOTION) : find(square(start), square(start + 2), promotion, position);
+            }
+            int result = San.decode(view, start, end, position, moves);
+            if (result < 0) {
+                return fail(result);
+            }
+            move = result;
+            return MOVE;
+        }
+        if (tokenCount > 3 || length(0) != 2 || length(1) != 2 || square(tokens[0]) < 0 || square(tokens[2]) < 0) {
+            return fail(SYNTAX);
+        }
+        int promotion = 0;
+        if (tokenCount == 3) {
+            promotion = length(2) == 1 ? promotion(tokens[4]) : -1;
+            if (promotion < 0) {
+                return fail(BAD_PROMOTION);
+            }
+        }
+        return find(square(tokens[0]), square(tokens[2]), promotion, position);
+    }
+
+    /**
+     * Finds the legal move between two squares. As in Chess.main, a promotion piece given for
+     * a move that does not promote is ignored.
+     */
+    private int find(int from, int to, int promotion, Position position) {
+        MoveGenerator.generatePseudoLegal(position, moves);
+        int wanted = promotion == 0 ? Position.QUEEN : promotion;
+        for (int i = 0; i < moves.size(); i++) {
+            int candidate = moves.get(i);
+            if (Move.from(candidate) == from && Move.to(candidate) == to
+                    && (Move.promotion(candidate) == 0 || Move.promotion(candidate) == wanted)) {
+                // only the one move that matches is checked for legality
+                if (!MoveGenerator.isLegal(position, candidate)) {
+                    break;
+                }
+                move = candidate;
+                return MOVE;
+            }
+        }
+        return fail(ILLEGAL);
+    }
+
+    private int fail(int code) {
+        move = Move.NONE;
+        return code;
+    }
+
+    /**
+     * Splits the text into tokens
+     * @return  Returns false if there are more than four
+     */
+    private boolean tokenize(int length) {
+        tokenCount = 0;
+        int i = 0;
+        while (true) {
+            while (i < length && isSpace(text[i])) {
+                i++;
+            }
+            if (i == length) {
+                return true;
+            }
+            if (tokenCount == 4) {
+                return false;
+            }
+            tokens[2 * tokenCount] = i;
+            while (i < length && !isSpace(text[i])) {
+                i++;
+            }
+            tokens[2 * tokenCount + 1] = i;
+            tokenCount++;
+        }
+    }
+
+    private int length(int token) {
+        return tokens[2 * token + 1] - tokens[2 * token];
+    }
+
+    private boolean is(int token, String word) {
+        int start = tokens[2 * token];
+        if (length(token) != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.toLowerCase(text[start + i]) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads a square such as e4
+     * @param at    the index of the file letter
+     * @return      Returns the square, or -1 if the two characters are not a square
+     */
+    private int square(int at) {
+        int col = text[at] - 'a';
+        int row = text[at + 1] - '1';
+        return col >= 0 && col < 8 && row >= 0 && row < 8 ? Position.square(row, col) : -1;
+    }
+
+    /**
+     * Reads a promotion piece letter, in either case
+     * @param at    the index of the letter
+     * @return      Returns the piece type, or -1 if the letter is not Q, R, B or N
+     */
+    private int promotion(int at) {
+        switch (Character.toUpperCase(text[at])) {
+            case 'N':
+                return Position.KNIGHT;
+            case 'B':
+                return Position.BISHOP;
+            case 'R':
+                return Position.ROOK;
+            case 'Q':
+                return Position.QUEEN;
+            default:
+                return -1;
+        }
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\f';
+    }
+}
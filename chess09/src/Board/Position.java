@@ -0,0 +1,561 @@
+package Board;
+
+import java.util.Arrays;
+
+import Controller.Attacks;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Bitboard representation of the pieces on the chess board. Every piece type of each
+ * color has its own 64-bit occupancy mask, and each color has an aggregate mask of all of
+ * its pieces. Square indexes follow the layout of ChessBoard: square = row * 8 + col, so
+ * a1 is square 0, h1 is square 7 and h8 is square 63.
+ */
+
+public class Position {
+
+    /** Color indexes used for the aggregate color masks */
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    /** Piece type indexes. A piece code is color * 6 + type */
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    /** Piece code stored in the square table for an empty square */
+    public static final int EMPTY = -1;
+
+    /** Castling right bits */
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+
+    /** Mask of the light squares; a1 is dark */
+    private static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+    private final long[] pieces = new long[12];
+    private final long[] colors = new long[2];
+    private final byte[] squares = new byte[64];
+    private int sideToMove;
+    private int castlingRights;
+    private int enPassantSquare;
+    private int halfmoveClock;
+    private int fullmoveNumber;
+    private long zobristKey;
+
+    /*
+     * Undo stack. Each entry packs the move into the low 32 bits and the state it destroys
+     * above it: the captured piece + 1 (bits 32-35), castling rights (36-39), en passant
+     * square + 1 (40-46), the side that was to move (47) and the halfmove clock (48-63).
+     * The Zobrist key from before each move is kept alongside in keys.
+     */
+    private long[] undo = new long[256];
+    private long[] keys = new long[256];
+    private int ply;
+
+    /**
+     * Creates an empty position with no pieces on it
+     */
+    public Position() {
+        clear();
+    }
+
+    /**
+     * Creates a copy of another position, including its undo stack, so the copy can take
+     * back the same moves and detect the same repetitions. The copy shares no arrays with
+     * the original, so each can be changed from a different thread.
+     * @param other     the position to copy
+     */
+    public Position(Position other) {
+        copyFrom(other);
+    }
+
+    /**
+     * Makes this position a copy of another one, including its undo stack
+     * @param other     the position to copy
+     */
+    public void copyFrom(Position other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, pieces.length);
+        System.arraycopy(other.colors, 0, colors, 0, colors.length);
+        System.arraycopy(other.squares, 0, squares, 0, squares.length);
+        sideToMove = other.sideToMove;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        zobristKey = other.zobristKey;
+        if (undo.length < other.undo.length) {
+            undo = new long[other.undo.length];
+            keys = new long[other.undo.length];
+        }
+        System.arraycopy(other.undo, 0, undo, 0, other.ply);
+        System.arraycopy(other.keys, 0, keys, 0, other.ply);
+        ply = other.ply;
+    }
+
+    /**
+     * Removes every piece from the position and resets the side to move, castling rights
+     * and en passant square
+     */
+    public void clear() {
+        for (int i = 0; i < pieces.length; i++) {
+            pieces[i] = 0L;
+        }
+        colors[WHITE] = 0L;
+        colors[BLACK] = 0L;
+        for (int sq = 0; sq < 64; sq++) {
+            squares[sq] = EMPTY;
+        }
+        sideToMove = WHITE;
+        castlingRights = 0;
+        enPassantSquare = -1;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        zobristKey = 0L;
+        ply = 0;
+    }
+
+    /**
+     * Plays a move and pushes what is needed to take it back onto the undo stack. The move
+     * is assumed to be legal, as produced by MoveGenerator. The stack only grows when a game
+     * runs past its current capacity, so making and unmaking moves does not allocate.
+     * @param move      the packed move
+     * @see #unmakeMove()
+     */
+    public void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int piece = squares[from];
+        int us = colorOf(piece);
+        long key = zobristKey;
+
+        int captured;
+        if (Move.is(move, Move.EN_PASSANT)) {
+            captured = remove(us == WHITE ? to - 8 : to + 8);
+        } else {
+            captured = remove(to);
+        }
+
+        if (ply == undo.length) {
+            undo = Arrays.copyOf(undo, ply * 2);
+            keys = Arrays.copyOf(keys, ply * 2);
+        }
+        keys[ply] = key;
+        undo[ply++] = (move & 0xFFFFFFFFL)
+                | ((long) (captured + 1) << 32)
+                | ((long) castlingRights << 36)
+                | ((long) (enPassantSquare + 1) << 40)
+                | ((long) sideToMove << 47)
+                | ((long) halfmoveClock << 48);
+
+        remove(from);
+        int promotion = Move.promotion(move);
+        put(to, promotion != 0 ? piece(us, promotion) : piece);
+        if (Move.is(move, Move.CASTLE)) {
+            int rookFrom = to > from ? from + 3 : from - 4;
+            int rookTo = to > from ? from + 1 : from - 1;
+            put(rookTo, remove(rookFrom));
+        }
+
+        int rights = castlingRights & castlingRightsKept(from) & castlingRightsKept(to);
+        zobristKey ^= Zobrist.CASTLING[castlingRights] ^ Zobrist.CASTLING[rights];
+        castlingRights = rights;
+
+        // only record an en passant square an enemy pawn can actually capture on, so that
+        // positions that only differ by a useless en passant square hash the same
+        zobristKey ^= Zobrist.enPassant(enPassantSquare);
+        enPassantSquare = -1;
+        if (Move.is(move, Move.DOUBLE_PUSH)) {
+            int skipped = (from + to) >>> 1;
+            if ((Attacks.PAWN[us][skipped] & pieces[piece(us ^ 1, PAWN)]) != 0L) {
+                enPassantSquare = skipped;
+                zobristKey ^= Zobrist.enPassant(skipped);
+            }
+        }
+        if (typeOf(piece) == PAWN || captured != EMPTY) {
+            halfmoveClock = 0;
+        } else {
+            halfmoveClock++;
+        }
+        if (us == BLACK) {
+            fullmoveNumber++;
+        }
+        if (sideToMove == us) {
+            zobristKey ^= Zobrist.SIDE;
+        }
+        sideToMove = us ^ 1;
+    }
+
+    /**
+     * Takes back the last move played with makeMove and restores the captured piece,
+     * castling rights, en passant square, halfmove clock and side to move
+     */
+    public void unmakeMove() {
+        long entry = undo[--ply];
+        int move = (int) entry;
+        int from = Move.from(move);
+        int to = Move.to(move);
+
+        int piece = remove(to);
+        int us = colorOf(piece);
+        if (Move.promotion(move) != 0) {
+            piece = piece(us, PAWN);
+        }
+        put(from, piece);
+        if (Move.is(move, Move.CASTLE)) {
+            int rookFrom = to > from ? from + 3 : from - 4;
+            int rookTo = to > from ? from + 1 : from - 1;
+            put(rookFrom, remove(rookTo));
+        }
+        int captured = (int) ((entry >>> 32) & 15) - 1;
+        if (captured != EMPTY) {
+            put(Move.is(move, Move.EN_PASSANT) ? (us == WHITE ? to - 8 : to + 8) : to, captured);
+        }
+
+        castlingRights = (int) ((entry >>> 36) & 15);
+        enPassantSquare = (int) ((entry >>> 40) & 127) - 1;
+        sideToMove = (int) ((entry >>> 47) & 1);
+        halfmoveClock = (int) (entry >>> 48);
+        if (us == BLACK) {
+            fullmoveNumber--;
+        }
+        zobristKey = keys[ply];
+    }
+
+    /**
+     * Checks if neither side has enough material left to checkmate: king against king, king
+     * and one minor piece against king, or kings and bishops that all stand on squares of
+     * the same color. Only the piece masks are looked at, so the check takes constant time.
+     * @return  Returns true if no sequence of legal moves can end in checkmate
+     */
+    public boolean isInsufficientMaterial() {
+        long heavy = pieces[PAWN] | pieces[ROOK] | pieces[QUEEN]
+                | pieces[6 + PAWN] | pieces[6 + ROOK] | pieces[6 + QUEEN];
+        if (heavy != 0L) {
+            return false;
+        }
+        long knights = pieces[KNIGHT] | pieces[6 + KNIGHT];
+        long bishops = pieces[BISHOP] | pieces[6 + BISHOP];
+        if (Long.bitCount(knights | bishops) <= 1) {
+            return true;
+        }
+        return knights == 0L && ((bishops & LIGHT_SQUARES) == 0L || (bishops & ~LIGHT_SQUARES) == 0L);
+    }
+
+    /**
+     * Takes an immutable snapshot of the position. The undo stack is not part of it.
+     * @return  Returns a snapshot of the pieces, side to move, castling rights, en passant square and move counters
+     */
+    public PositionSnapshot snapshot() {
+        return new PositionSnapshot(this);
+    }
+
+    /**
+     * Gets the last move played with makeMove that has not been taken back
+     * @return  Returns the packed move, or Move.NONE if no move has been played
+     */
+    public int lastMove() {
+        return ply == 0 ? Move.NONE : (int) undo[ply - 1];
+    }
+
+    /**
+     * Gets a move from the undo stack
+     * @param index     the index of the move, 0 being the first move played
+     * @return          Returns the packed move
+     */
+    public int moveAt(int index) {
+        if (index < 0 || index >= ply) {
+            throw new IndexOutOfBoundsException("move " + index + " of " + ply);
+        }
+        return (int) undo[index];
+    }
+
+    /**
+     * Gets the number of moves on the undo stack
+     * @return  Returns the number of moves that can be taken back
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Counts how many times the current position has occurred in this game, including now.
+     * Only the positions with the same side to move since the last capture or pawn move are
+     * compared, since no position before an irreversible move can occur again, so the cost
+     * is bounded by the halfmove clock rather than the length of the game.
+     * @return  Returns the number of times the current position has occurred
+     */
+    public int repetitionCount() {
+        int count = 1;
+        int oldest = Math.max(ply - halfmoveClock, 0);
+        for (int i = ply - 2; i >= oldest; i -= 2) {
+            if (keys[i] == zobristKey) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Places a piece on an empty square
+     * @param square    the square index (row * 8 + col)
+     * @param piece     the piece code (color * 6 + type)
+     */
+    public void put(int square, int piece) {
+        long bit = 1L << square;
+        pieces[piece] |= bit;
+        colors[colorOf(piece)] |= bit;
+        squares[square] = (byte) piece;
+        zobristKey ^= Zobrist.PIECES[piece][square];
+    }
+
+    /**
+     * Removes whatever piece is on the given square
+     * @param square    the square index (row * 8 + col)
+     * @return          Returns the piece code that was removed, or EMPTY if the square was empty
+     */
+    public int remove(int square) {
+        int piece = squares[square];
+        if (piece != EMPTY) {
+            long bit = ~(1L << square);
+            pieces[piece] &= bit;
+            colors[colorOf(piece)] &= bit;
+            squares[square] = EMPTY;
+            zobristKey ^= Zobrist.PIECES[piece][square];
+        }
+        return piece;
+    }
+
+    /**
+     * Gets the piece on a square
+     * @param square    the square index (row * 8 + col)
+     * @return          Returns the piece code on the square, or EMPTY
+     */
+    public int pieceAt(int square) {
+        return squares[square];
+    }
+
+    /**
+     * Gets the occupancy mask of one piece type of one color
+     * @param piece     the piece code (color * 6 + type)
+     * @return          Returns a mask with a bit set for every square holding that piece
+     */
+    public long getPieces(int piece) {
+        return pieces[piece];
+    }
+
+    /**
+     * Gets the occupancy mask of one piece type of one color
+     * @param color     WHITE or BLACK
+     * @param type      the piece type
+     * @return          Returns a mask with a bit set for every square holding that piece
+     */
+    public long getPieces(int color, int type) {
+        return pieces[color * 6 + type];
+    }
+
+    /**
+     * Gets the aggregate occupancy mask of one color
+     * @param color     WHITE or BLACK
+     * @return          Returns a mask with a bit set for every square holding a piece of that color
+     */
+    public long getColor(int color) {
+        return colors[color];
+    }
+
+    /**
+     * Gets the occupancy mask of the whole board
+     * @return  Returns a mask with a bit set for every occupied square
+     */
+    public long getOccupied() {
+        return colors[WHITE] | colors[BLACK];
+    }
+
+    /**
+     * Finds the king of the given color
+     * @param color     WHITE or BLACK
+     * @return          Returns the square of the king, or -1 if there is no king of that color
+     */
+    public int kingSquare(int color) {
+        long kings = pieces[color * 6 + KING];
+        return kings == 0L ? -1 : Long.numberOfTrailingZeros(kings);
+    }
+
+    /**
+     * Checks if any piece of the given color attacks a square
+     * @param square    the square that may be attacked
+     * @param byColor   the color of the attacking pieces
+     * @return          Returns true if a piece of byColor attacks the square
+     * @see Attacks
+     */
+    public boolean isSquareAttacked(int square, int byColor) {
+        long queens = getPieces(byColor, QUEEN);
+        return Attacks.isSquareAttacked(square, byColor, getPieces(byColor, PAWN), getPieces(byColor, KNIGHT),
+                getPieces(byColor, BISHOP) | queens, getPieces(byColor, ROOK) | queens,
+                getPieces(byColor, KING), getOccupied());
+    }
+
+    /**
+     * Gets the color whose turn it is
+     * @return  Returns WHITE or BLACK
+     */
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Sets the color whose turn it is
+     * @param color     WHITE or BLACK
+     */
+    public void setSideToMove(int color) {
+        if (color != sideToMove) {
+            zobristKey ^= Zobrist.SIDE;
+        }
+        this.sideToMove = color;
+    }
+
+    /**
+     * Gets the castling rights that are still available
+     * @return  Returns a combination of the WHITE_KINGSIDE, WHITE_QUEENSIDE, BLACK_KINGSIDE and BLACK_QUEENSIDE bits
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * Sets the castling rights that are still available
+     * @param rights    a combination of the castling right bits
+     */
+    public void setCastlingRights(int rights) {
+        zobristKey ^= Zobrist.CASTLING[castlingRights] ^ Zobrist.CASTLING[rights];
+        this.castlingRights = rights;
+    }
+
+    /**
+     * Gets the square a pawn skipped over with a double push on the last move
+     * @return  Returns the en passant target square, or -1 if there is none
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * Sets the square a pawn skipped over with a double push on the last move
+     * @param square    the en passant target square, or -1 if there is none
+     */
+    public void setEnPassantSquare(int square) {
+        zobristKey ^= Zobrist.enPassant(enPassantSquare) ^ Zobrist.enPassant(square);
+        this.enPassantSquare = square;
+    }
+
+    /**
+     * Gets the 64-bit Zobrist hash of the position. It covers piece placement, side to move,
+     * castling rights and the en passant file, and is kept up to date on every change.
+     * @return  Returns the Zobrist key of the position
+     * @see Zobrist
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Gets the number of moves since the last capture or pawn move
+     * @return  Returns the halfmove clock
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * Sets the number of moves since the last capture or pawn move
+     * @param clock     the halfmove clock
+     */
+    public void setHalfmoveClock(int clock) {
+        this.halfmoveClock = clock;
+    }
+
+    /**
+     * Gets the number of the current full move. It starts at 1 and goes up after every black move
+     * @return  Returns the fullmove number
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * Sets the number of the current full move
+     * @param number    the fullmove number
+     */
+    public void setFullmoveNumber(int number) {
+        this.fullmoveNumber = number;
+    }
+
+    /**
+     * Gets the castling rights that survive a move touching the given square. Moving from
+     * or capturing on a king or rook starting square loses the matching rights.
+     * @param square    the from or to square of a move
+     * @return          Returns a mask of the castling rights to keep
+     */
+    public static int castlingRightsKept(int square) {
+        switch (square) {
+            case 0:
+                return ~WHITE_QUEENSIDE;
+            case 4:
+                return ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+            case 7:
+                return ~WHITE_KINGSIDE;
+            case 56:
+                return ~BLACK_QUEENSIDE;
+            case 60:
+                return ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+            case 63:
+                return ~BLACK_KINGSIDE;
+            default:
+                return ~0;
+        }
+    }
+
+    /**
+     * Builds a piece code
+     * @param color     WHITE or BLACK
+     * @param type      the piece type
+     * @return          Returns the piece code (color * 6 + type)
+     */
+    public static int piece(int color, int type) {
+        return color * 6 + type;
+    }
+
+    /**
+     * Gets the color of a piece code
+     * @param piece     the piece code
+     * @return          Returns WHITE or BLACK
+     */
+    public static int colorOf(int piece) {
+        return piece < 6 ? WHITE : BLACK;
+    }
+
+    /**
+     * Gets the type of a piece code
+     * @param piece     the piece code
+     * @return          Returns the piece type (PAWN through KING)
+     */
+    public static int typeOf(int piece) {
+        return piece < 6 ? piece : piece - 6;
+    }
+
+    /**
+     * Builds a square index
+     * @param row   the row of the square
+     * @param col   the column of the square
+     * @return      Returns row * 8 + col
+     */
+    public static int square(int row, int col) {
+        return (row << 3) | col;
+    }
+}
@@ -0,0 +1,186 @@
+package Board;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Immutable copy of a position. The 64 squares are packed four bits each into four longs,
+ * holding the piece code + 1 so that 0 is an empty square, and the rest of the state is
+ * packed into one more long. Nothing in a snapshot can change once it is made, so it can be
+ * handed to other threads, kept in caches and used as a map key without copying it again.
+ *
+ * The state word packs the side to move (bit 0), the castling rights (1-4), the en passant
+ * square + 1 (5-11), the halfmove clock (12-27) and the fullmove number (28-59).
+ */
+
+public final class PositionSnapshot {
+    private final long squares0;
+    private final long squares1;
+    private final long squares2;
+    private final long squares3;
+    private final long state;
+    private final long zobristKey;
+
+    /**
+     * Takes a snapshot of a position
+     * @param position  the position to copy
+     */
+    PositionSnapshot(Position position) {
+        squares0 = pack(position, 0);
+        squares1 = pack(position, 16);
+        squares2 = pack(position, 32);
+        squares3 = pack(position, 48);
+        state = position.getSideToMove()
+                | (long) position.getCastlingRights() << 1
+                | (long) (position.getEnPassantSquare() + 1) << 5
+                | (long) (position.getHalfmoveClock() & 0xFFFF) << 12
+                | (long) position.getFullmoveNumber() << 28;
+        zobristKey = position.getZobristKey();
+    }
+
+    private static long pack(Position position, int first) {
+        long word = 0L;
+        for (int i = 0; i < 16; i++) {
+            word |= (long) (position.pieceAt(first + i) + 1) << (i << 2);
+        }
+        return word;
+    }
+
+    /**
+     * Gets the piece on a square
+     * @param square    the square index (row * 8 + col)
+     * @return          Returns the piece code on the square, or Position.EMPTY
+     */
+    public int pieceAt(int square) {
+        long word;
+        switch (square >>> 4) {
+            case 0:
+                word = squares0;
+                break;
+            case 1:
+                word = squares1;
+                break;
+            case 2:
+                word = squares2;
+                break;
+            default:
+                word = squares3;
+                break;
+        }
+        return (int) (word >>> ((square & 15) << 2) & 15) - 1;
+    }
+
+    /**
+     * Gets the piece on a square
+     * @param row       the row of the square
+     * @param col       the column of the square
+     * @return          Returns the piece code on the square, or Position.EMPTY
+     */
+    public int pieceAt(int row, int col) {
+        return pieceAt(Position.square(row, col));
+    }
+
+    /**
+     * Gets the side to move
+     * @return  Returns Position.WHITE or Position.BLACK
+     */
+    public int getSideToMove() {
+        return (int) (state & 1);
+    }
+
+    /**
+     * Gets the castling rights
+     * @return  Returns the castling right bits
+     */
+    public int getCastlingRights() {
+        return (int) (state >>> 1) & 15;
+    }
+
+    /**
+     * Gets the en passant square
+     * @return  Returns the square a pawn can capture en passant on, or -1
+     */
+    public int getEnPassantSquare() {
+        return (int) (state >>> 5 & 127) - 1;
+    }
+
+    /**
+     * Gets the halfmove clock
+     * @return  Returns the number of plies since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return (int) (state >>> 12) & 0xFFFF;
+    }
+
+    /**
+     * Gets the fullmove number
+     * @return  Returns the number of the current move, starting at 1
+     */
+    public int getFullmoveNumber() {
+        return (int) (state >>> 28);
+    }
+
+    /**
+     * Gets the Zobrist key of the position, as Position.getZobristKey computed it
+     * @return  Returns the 64-bit hash of the position
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Writes the snapshot back into a position, which loses its undo stack
+     * @param position  the position to overwrite
+     */
+    public void restore(Position position) {
+        position.clear();
+        for (int sq = 0; sq < 64; sq++) {
+            int piece = pieceAt(sq);
+            if (piece != Position.EMPTY) {
+                position.put(sq, piece);
+            }
+        }
+        position.setSideToMove(getSideToMove());
+        position.setCastlingRights(getCastlingRights());
+        position.setEnPassantSquare(getEnPassantSquare());
+        position.setHalfmoveClock(getHalfmoveClock());
+        position.setFullmoveNumber(getFullmoveNumber());
+    }
+
+    /**
+     * Returns the snapshot as a FEN record
+     * @return  Returns the FEN text of the position
+     */
+    @Override
+    public String toString() {
+        Position position = new Position();
+        restore(position);
+        return Fen.format(position);
+    }
+
+    /**
+     * Checks if two snapshots hold the same pieces and the same state, move counters included
+     * @param other     the object to compare with
+     * @return          Returns true if other is a snapshot of an identical position
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof PositionSnapshot)) {
+            return false;
+        }
+        PositionSnapshot that = (PositionSnapshot) other;
+        return squares0 == that.squares0 && squares1 == that.squares1 && squares2 == that.squares2
+                && squares3 == that.squares3 && state == that.state;
+    }
+
+    /**
+     * Gets a hash code taken from the Zobrist key, so hashing a snapshot costs nothing
+     * @return  Returns the hash code of the snapshot
+     */
+    @Override
+    public int hashCode() {
+        return (int) (zobristKey ^ (zobristKey >>> 32));
+    }
+}
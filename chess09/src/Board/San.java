@@ -0,0 +1,215 @@
+package Board;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Standard Algebraic Notation (SAN), the move notation of PGN files: Nf3, exd5, O-O,
+ * e8=Q+ and so on. A SAN move only makes sense in the position it is played from, so both
+ * directions work against the legal moves of a Position. Parsing reads the text in place
+ * and allocates nothing.
+ */
+
+public final class San {
+
+    private static final String PIECE_LETTERS = "PNBRQK";
+
+    private San() {
+    }
+
+    /**
+     * Finds the legal move a SAN move stands for
+     * @param san       the text holding the move
+     * @param start     the index of the first character of the move
+     * @param end       the index after the last character of the move
+     * @param position  the position the move is played from
+     * @param moves     a scratch buffer for the legal moves
+     * @return          Returns the packed move, or Move.NONE if the text is not exactly one legal move
+     */
+    public static int parse(CharSequence san, int start, int end, Position position, MoveList moves) {
+        int move = decode(san, start, end, position, moves);
+        return move < 0 ? Move.NONE : move;
+    }
+
+    /**
+     * Finds the legal move a SAN move stands for, telling why if there is none
+     * @param san       the text holding the move
+     * @param start     the index of the first character of the move
+     * @param end       the index after the last character of the move
+     * @param position  the position the move is played from
+     * @param moves     a scratch buffer for the moves
+     * @return          Returns the packed move, or one of the negative error codes of MoveParser
+     */
+    static int decode(CharSequence san, int start, int end, Position position, MoveList moves) {
+        // drop check, mate and annotation marks
+        while (end > start && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        if (end - start < 2) {
+            return MoveParser.SYNTAX;
+        }
+
+        // pseudo-legal moves are enough to find the candidates; only those are checked for legality
+        char first = san.charAt(start);
+        if (first == 'O' || first == '0') {
+            int length = end - start;
+            if (length != 3 && length != 5) {
+                return MoveParser.SYNTAX;
+            }
+            MoveGenerator.generatePseudoLegal(position, moves);
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                // castles are only generated when they are legal
+                if (Move.is(move, Move.CASTLE) && (Move.to(move) > Move.from(move)) == (length == 3)) {
+                    return move;
+                }
+            }
+            return MoveParser.ILLEGAL;
+        }
+
+        int type = Position.PAWN;
+        if (first >= 'B' && first <= 'R') {
+            type = PIECE_LETTERS.indexOf(first);
+            if (type <= 0) {
+                return MoveParser.SYNTAX;
+            }
+            start++;
+        }
+
+        int promotion = 0;
+        char last = san.charAt(end - 1);
+        if (last >= 'B' && last <= 'R') {
+            promotion = PIECE_LETTERS.indexOf(last);
+            if (promotion <= 0 || promotion == Position.KING) {
+                return MoveParser.BAD_PROMOTION;
+            }
+            end--;
+            if (end > start && san.charAt(end - 1) == '=') {
+                end--;
+            }
+        }
+
+        if (end - start < 2) {
+            return MoveParser.SYNTAX;
+        }
+        int toCol = san.charAt(end - 2) - 'a';
+        int toRow = san.charAt(end - 1) - '1';
+        if (toCol < 0 || toCol > 7 || toRow < 0 || toRow > 7) {
+            return MoveParser.SYNTAX;
+        }
+        int to = Position.square(toRow, toCol);
+
+        // whatever is left is an optional from file and rank, and an optional x
+        int fromCol = -1;
+        int fromRow = -1;
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromCol = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRow = c - '1';
+            } else if (c != 'x' && c != '-' && c != ':') {
+                return MoveParser.SYNTAX;
+            }
+        }
+
+        MoveGenerator.generatePseudoLegal(position, moves);
+        int found = Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = Move.from(move);
+            if (Move.to(move) != to || Move.promotion(move) != promotion
+                    || Position.typeOf(position.pieceAt(from)) != type
+                    || (fromCol >= 0 && (from & 7) != fromCol)
+                    || (fromRow >= 0 && (from >>> 3) != fromRow)
+                    || !MoveGenerator.isLegal(position, move)) {
+                continue;
+            }
+            if (found != Move.NONE) {
+                return MoveParser.AMBIGUOUS;
+            }
+            found = move;
+        }
+        return found != Move.NONE ? found : MoveParser.ILLEGAL;
+    }
+
+    /**
+     * Finds the legal move a SAN move stands for
+     * @param san       the move, such as Nbd7 or exd8=Q+
+     * @param position  the position the move is played from
+     * @param moves     a scratch buffer for the legal moves
+     * @return          Returns the packed move, or Move.NONE if the text is not exactly one legal move
+     */
+    public static int parse(CharSequence san, Position position, MoveList moves) {
+        return parse(san, 0, san.length(), position, moves);
+    }
+
+    /**
+     * Writes a legal move in SAN, with the shortest disambiguation and a + or # suffix
+     * @param sb        the builder to append to
+     * @param move      the packed legal move
+     * @param position  the position the move is played from. It is restored before returning
+     * @param moves     a scratch buffer for the legal moves
+     */
+    public static void append(StringBuilder sb, int move, Position position, MoveList moves) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        if (Move.is(move, Move.CASTLE)) {
+            sb.append(to > from ? "O-O" : "O-O-O");
+        } else {
+            int type = Position.typeOf(position.pieceAt(from));
+            if (type == Position.PAWN) {
+                if (Move.is(move, Move.CAPTURE)) {
+                    sb.append((char) ('a' + (from & 7)));
+                }
+            } else {
+                sb.append(PIECE_LETTERS.charAt(type));
+                MoveGenerator.generateLegal(position, moves);
+                boolean ambiguous = false;
+                boolean sameCol = false;
+                boolean sameRow = false;
+                for (int i = 0; i < moves.size(); i++) {
+                    int other = moves.get(i);
+                    int otherFrom = Move.from(other);
+                    if (otherFrom != from && Move.to(other) == to
+                            && Position.typeOf(position.pieceAt(otherFrom)) == type) {
+                        ambiguous = true;
+                        sameCol |= (otherFrom & 7) == (from & 7);
+                        sameRow |= (otherFrom >>> 3) == (from >>> 3);
+                    }
+                }
+                if (ambiguous && (!sameCol || sameRow)) {
+                    sb.append((char) ('a' + (from & 7)));
+                }
+                if (ambiguous && sameCol) {
+                    sb.append((char) ('1' + (from >>> 3)));
+                }
+            }
+            if (Move.is(move, Move.CAPTURE)) {
+                sb.append('x');
+            }
+            Move.appendSquare(sb, to);
+            if (Move.promotion(move) != 0) {
+                sb.append('=').append(PIECE_LETTERS.charAt(Move.promotion(move)));
+            }
+        }
+
+        position.makeMove(move);
+        int king = position.kingSquare(position.getSideToMove());
+        if (king >= 0 && position.isSquareAttacked(king, position.getSideToMove() ^ 1)) {
+            sb.append(MoveGenerator.hasLegalMove(position, moves) ? '+' : '#');
+        }
+        position.unmakeMove();
+    }
+
+    /**
+     * Writes a legal move in SAN
+     * @param move      the packed legal move
+     * @param position  the position the move is played from. It is restored before returning
+     * @return          Returns the move in SAN, such as Nf3 or O-O
+     */
+    public static String format(int move, Position position) {
+        StringBuilder sb = new StringBuilder(8);
+        append(sb, move, position, new MoveList());
+        return sb.toString();
+    }
+}
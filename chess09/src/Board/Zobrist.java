@@ -0,0 +1,53 @@
+package Board;
+
+import java.util.SplittableRandom;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Random keys for Zobrist hashing. The hash of a position is the XOR of the key of every
+ * piece on its square, the side key when black is to move, the key of the castling rights
+ * and the key of the en passant file. Position keeps the hash up to date by XOR-ing keys in
+ * and out as it changes, so it never has to be recomputed from the whole board. The keys
+ * come from a fixed seed, so a position hashes to the same value in every run.
+ */
+
+public final class Zobrist {
+
+    /** Keys for a piece on a square, indexed [piece code][square] */
+    static final long[][] PIECES = new long[12][64];
+    /** Key added when black is to move */
+    static final long SIDE;
+    /** Keys for each combination of castling rights; no rights hash to 0 */
+    static final long[] CASTLING = new long[16];
+    /** Keys for the file of the en passant square */
+    static final long[] EN_PASSANT = new long[8];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EEDC4E55L);
+        for (int piece = 0; piece < 12; piece++) {
+            for (int sq = 0; sq < 64; sq++) {
+                PIECES[piece][sq] = random.nextLong();
+            }
+        }
+        SIDE = random.nextLong();
+        for (int rights = 1; rights < 16; rights++) {
+            CASTLING[rights] = random.nextLong();
+        }
+        for (int file = 0; file < 8; file++) {
+            EN_PASSANT[file] = random.nextLong();
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Gets the key of an en passant square
+     * @param square    the en passant square, or -1 if there is none
+     * @return          Returns the key of the square's file, or 0 if there is no en passant square
+     */
+    static long enPassant(int square) {
+        return square < 0 ? 0L : EN_PASSANT[square & 7];
+    }
+}
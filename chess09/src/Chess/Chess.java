@@ -1,25 +1,53 @@
 package Chess;
 
 import Board.*;
-//import Controller.*;
+import Controller.PieceColor;
 
+import Pgn.PgnGame;
+import Pgn.PgnWriter;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.Scanner;
 
 /**
  * @authors Avinash Paluri and Vishal Patel
  *
- * Class that creates and maintains the chess game
+ * Class that creates and maintains the chess game. Run with -Dpgn=file to append every
+ * finished game to a PGN file, and with -Ddiff to print only the squares each move changed,
+ * such as "e2=- e4=wP", after the first full board.
+ *
+ * Usage:
+ *   java Chess.Chess [fen]                 plays from a FEN record (the start position by default)
+ *   java -Dpgn=games.pgn -Ddiff Chess.Chess ...  appends finished games to games.pgn and prints diffs
  */
 
 public class Chess {
+    private static final String USAGE = "Usage: java [-Dpgn=file] [-Ddiff] Chess.Chess [fen]";
 
     /**
 	 * Creates the board and scanner and allows the player to play the game until it is over/forfeited
-     * @param args the string array of args being passed in. Contains valid string moves
+     * @param args the string array of args being passed in. If given, it is a FEN record of the position to start from
 	 */
     public static void main(String[] args) {
         ChessBoard board = new ChessBoard();
+        if (args.length > 0) {
+            try {
+                board.loadFen(String.join(" ", args));
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                System.err.println(USAGE);
+                System.exit(1);
+            }
+        }
         Scanner scanner = new Scanner(System.in);
+        MoveParser parser = new MoveParser();
+        BoardRenderer renderer = new BoardRenderer();
+        StringBuilder out = new StringBuilder(256);
+        boolean diffs = System.getProperty("diff") != null;
+        boolean shown = false;
         boolean drawInitiated = false;
         boolean mustDraw = false;
         boolean tryAgain = false;
@@ -27,12 +55,41 @@ public class Chess {
         while (true) {
             if(!tryAgain)
             {
-                System.out.println(board.toString()+"\n");
+                board.render(renderer);
+                out.setLength(0);
+                if (diffs && shown) {
+                    renderer.appendDiff(out);
+                } else {
+                    renderer.appendTo(out);
+                }
+                System.out.println(out.append('\n'));
+                shown = true;
                 tryAgain=false;
             }
 
             if (board.isCheckmate(board.getCurrentPlayer())) {
                 System.out.println("Checkmate!\n" + board.getOtherPlayer() + " wins!");
+                saveGame(board, winner(board.getOtherPlayer()));
+                scanner.close();
+                return;
+            } else if (board.isStalemate(board.getCurrentPlayer())) {
+                System.out.println("Stalemate! The game is a draw");
+                saveGame(board, PgnGame.DRAW);
+                scanner.close();
+                return;
+            } else if (board.isInsufficientMaterial()) {
+                System.out.println("Draw by insufficient material");
+                saveGame(board, PgnGame.DRAW);
+                scanner.close();
+                return;
+            } else if (board.isThreefoldRepetition()) {
+                System.out.println("Draw by threefold repetition");
+                saveGame(board, PgnGame.DRAW);
+                scanner.close();
+                return;
+            } else if (board.isFiftyMoveDraw()) {
+                System.out.println("Draw by the fifty-move rule");
+                saveGame(board, PgnGame.DRAW);
                 scanner.close();
                 return;
             } else if (board.isCheck(board.getCurrentPlayer())) {
@@ -42,51 +99,60 @@ public class Chess {
 
             System.out.print(board.getCurrentPlayer() + "'s move: ");
             String input = scanner.nextLine();
-            String[] tokens = input.split(" ");
+            int parsed = board.parseMove(parser, input);
             
             // Check for resignation
-            if (tokens.length == 1 && tokens[0].equalsIgnoreCase("resign")) {
+            if (parsed == MoveParser.RESIGN) {
                 System.out.println(board.getOtherPlayer() +" wins!");
+                saveGame(board, winner(board.getOtherPlayer()));
                 scanner.close();
                 return;
             }
             
-            // Check for draw offer
-            if (tokens.length > 2 && tokens[2].equalsIgnoreCase("draw?")) {
-                board.setDrawOffered(true, board.getCurrentPlayer());
-                drawInitiated = true;
-                tryAgain=false;
-            }
-            
             // Check for draw acceptance
-            if (tokens.length == 1 && tokens[0].equalsIgnoreCase("draw") && board.isDrawOffered(board.getCurrentPlayer())) {
+            if (parsed == MoveParser.DRAW && board.isDrawOffered(board.getCurrentPlayer())) {
+                saveGame(board, PgnGame.DRAW);
                 scanner.close();
                 return;
             }
-            try{
-                int startCol = (int)tokens[0].charAt(0) - 97;
-                int startRow = Integer.parseInt(tokens[0].substring(1)) - 1;
-                int endCol = (int)tokens[1].charAt(0) - 97;
-                int endRow = Integer.parseInt(tokens[1].substring(1)) - 1; 
 
-                if (mustDraw || !board.movePiece(startRow, startCol, endRow, endCol)) {
-                    System.out.println("Illegal move! Try again.\n");   
-                    tryAgain=true;            
-                } else if(drawInitiated){
-                    board.promotePiece(endRow, endCol, tokens);
-                    board.nextPlayer();
-                    mustDraw = true;
-                    tryAgain=false;
-                } else {
-                    board.promotePiece(endRow, endCol, tokens);
-                    board.nextPlayer();   
-                    tryAgain=false;                 
-                }
-            }catch(Exception e)
-            {
+            if (parsed != MoveParser.MOVE || mustDraw || !board.movePiece(parser.getMove())) {
                 System.out.println("Illegal move! Try again.\n");
-                tryAgain = true;               
+                tryAgain=true;
+                continue;
             }
+
+            // Check for draw offer
+            if (parser.offersDraw()) {
+                board.setDrawOffered(true, board.getCurrentPlayer());
+                drawInitiated = true;
+            }
+            board.nextPlayer();
+            mustDraw = drawInitiated;
+            tryAgain=false;
+        }
+    }
+
+    private static String winner(PieceColor color) {
+        return color == PieceColor.WHITE ? PgnGame.WHITE_WINS : PgnGame.BLACK_WINS;
+    }
+
+    /**
+     * Appends the finished game to the PGN file named by the pgn system property, if it is set
+     * @param board     the board the game was played on
+     * @param result    the result of the game
+     */
+    private static void saveGame(ChessBoard board, String result) {
+        String file = System.getProperty("pgn");
+        if (file == null) {
+            return;
+        }
+        PgnGame game = PgnGame.of(board, result);
+        game.setTag("Date", LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy.MM.dd")));
+        try (PgnWriter writer = PgnWriter.append(Paths.get(file))) {
+            writer.write(game);
+        } catch (IOException e) {
+            System.out.println("Could not save the game: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,144 @@
+package Controller;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * The single place that answers "is this square attacked?". Knights, kings and pawns use
+ * precomputed attack tables and the sliding pieces use ray scans, all worked backwards from
+ * the target square, so the answer costs the same no matter how many pieces are on the
+ * board and no piece is ever asked to validate a move. Squares are indexed row * 8 + col
+ * and color indexes are 0 for white and 1 for black.
+ */
+
+public final class Attacks {
+
+    /** Squares a knight attacks from each square */
+    public static final long[] KNIGHT = new long[64];
+    /** Squares a king attacks from each square */
+    public static final long[] KING = new long[64];
+    /** Squares a pawn attacks from each square, indexed [color][square] */
+    public static final long[][] PAWN = new long[2][64];
+
+    static {
+        int[][] knightSteps = { { 1, 2 }, { 2, 1 }, { 2, -1 }, { 1, -2 }, { -1, -2 }, { -2, -1 }, { -2, 1 }, { -1, 2 } };
+        for (int sq = 0; sq < 64; sq++) {
+            int row = sq >>> 3;
+            int col = sq & 7;
+            for (int[] step : knightSteps) {
+                KNIGHT[sq] |= bit(row + step[0], col + step[1]);
+            }
+            for (int[] step : Rays.STEPS) {
+                KING[sq] |= bit(row + step[0], col + step[1]);
+            }
+            PAWN[0][sq] = bit(row + 1, col - 1) | bit(row + 1, col + 1);
+            PAWN[1][sq] = bit(row - 1, col - 1) | bit(row - 1, col + 1);
+        }
+    }
+
+    private Attacks() {
+    }
+
+    /**
+     * Gets the squares a bishop attacks
+     * @param square    the square of the bishop
+     * @param occupied  the mask of occupied squares
+     * @return          Returns the attacked squares, up to and including the first blocker in each direction
+     */
+    public static long bishop(int square, long occupied) {
+        return ray(2, square, occupied) | ray(3, square, occupied) | ray(6, square, occupied) | ray(7, square, occupied);
+    }
+
+    /**
+     * Gets the squares a rook attacks
+     * @param square    the square of the rook
+     * @param occupied  the mask of occupied squares
+     * @return          Returns the attacked squares, up to and including the first blocker in each direction
+     */
+    public static long rook(int square, long occupied) {
+        return ray(0, square, occupied) | ray(1, square, occupied) | ray(4, square, occupied) | ray(5, square, occupied);
+    }
+
+    /**
+     * Checks if a square is attacked, given the occupancy masks of the attacking side
+     * @param square        the square that may be attacked
+     * @param byColor       the color of the attackers, 0 for white and 1 for black
+     * @param pawns         the attacker's pawns
+     * @param knights       the attacker's knights
+     * @param diagonal      the attacker's bishops and queens
+     * @param straight      the attacker's rooks and queens
+     * @param kings         the attacker's king
+     * @param occupied      every occupied square on the board
+     * @return              Returns true if any of the attacker's pieces attacks the square
+     */
+    public static boolean isSquareAttacked(int square, int byColor, long pawns, long knights,
+            long diagonal, long straight, long kings, long occupied) {
+        return (KNIGHT[square] & knights) != 0L
+                || (PAWN[byColor ^ 1][square] & pawns) != 0L
+                || (KING[square] & kings) != 0L
+                || (diagonal != 0L && (bishop(square, occupied) & diagonal) != 0L)
+                || (straight != 0L && (rook(square, occupied) & straight) != 0L);
+    }
+
+    /**
+     * Checks if a square is attacked on a board of chess piece objects. The nearest piece in
+     * each of the eight directions and the knight, king and pawn squares around the target
+     * are looked at; nothing else on the board is visited.
+     * @param row       the row of the square that may be attacked
+     * @param col       the column of the square that may be attacked
+     * @param byColor   the color of the attacking pieces
+     * @param board     the current board containing all the pieces on it
+     * @return          Returns true if a piece of byColor attacks the square
+     */
+    public static boolean isSquareAttacked(int row, int col, PieceColor byColor, ChessPiece[][] board) {
+        int square = row * 8 + col;
+        if (hasAttacker(KNIGHT[square], Knight.class, byColor, board)
+                || hasAttacker(KING[square], King.class, byColor, board)
+                || hasAttacker(PAWN[byColor == PieceColor.WHITE ? 1 : 0][square], Pawn.class, byColor, board)) {
+            return true;
+        }
+        for (int dir = 0; dir < 8; dir++) {
+            int[] step = Rays.STEPS[dir];
+            boolean diagonal = step[0] != 0 && step[1] != 0;
+            for (int r = row + step[0], c = col + step[1]; r >= 0 && r < 8 && c >= 0 && c < 8; r += step[0], c += step[1]) {
+                ChessPiece piece = board[r][c];
+                if (piece != null) {
+                    if (piece.getColor() == byColor
+                            && (piece instanceof Queen || (diagonal ? piece instanceof Bishop : piece instanceof Rook))) {
+                        return true;
+                    }
+                    break;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasAttacker(long squares, Class<? extends ChessPiece> type, PieceColor byColor, ChessPiece[][] board) {
+        for (; squares != 0L; squares &= squares - 1) {
+            int sq = Long.numberOfTrailingZeros(squares);
+            ChessPiece piece = board[sq >>> 3][sq & 7];
+            if (type.isInstance(piece) && piece.getColor() == byColor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long ray(int dir, int square, long occupied) {
+        long ray = Rays.RAYS[dir][square];
+        long blockers = ray & occupied;
+        if (blockers != 0L) {
+            // directions 0-3 run towards higher squares, so the nearest blocker is the lowest bit
+            int nearest = dir < 4 ? Long.numberOfTrailingZeros(blockers) : 63 - Long.numberOfLeadingZeros(blockers);
+            ray ^= Rays.RAYS[dir][nearest];
+        }
+        return ray;
+    }
+
+    private static long bit(int row, int col) {
+        if (row < 0 || row >= 8 || col < 0 || col >= 8) {
+            return 0L;
+        }
+        return 1L << (row * 8 + col);
+    }
+}
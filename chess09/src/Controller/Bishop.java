@@ -20,44 +20,8 @@ public class Bishop extends ChessPiece{
     
     @Override
     public boolean isValidMove(int toRow, int toCol, ChessPiece[][] board) {
-        int currRow = getRow();
-        int currCol = getCol();
-
-        if( Math.abs(toRow - currRow) == 0 || Math.abs(toCol - currCol) == 0)
-        {
-            return false;
-        }
-        
-        // check if move is diagonal
-        if (Math.abs(currRow - toRow) != Math.abs(currCol - toCol)) {
-            return false;
-        }
-        
-        // check if path is clear
-        int rowDir = (toRow - currRow) / Math.abs(toRow - currRow);
-        int colDir = (toCol - currCol) / Math.abs(toCol - currCol);
-        
-        int nextRow = currRow + rowDir;
-        int nextCol = currCol + colDir;
-        
-        while (nextRow != toRow || nextCol != toCol) {
-            if (board[nextRow][nextCol] != null) {
-                return false;
-            }
-            
-            nextRow += rowDir;
-            nextCol += colDir;
-        }
-        
-        // check if destination is empty or has opponent's piece
-        if (!hasPiece(toRow, toCol, board) || isOpponentPiece(toRow, toCol, board)) {
-            return true;
-        }
-        // if (board[toRow][toCol] == null || board[toRow][toCol].getColor() != getColor().opposite()) {
-        //     return true;
-        // }
-        
-        return false;
+        // the move must be diagonal with a clear path
+        return canSlideTo(toRow, toCol, board, true, false);
     }
 
     @Override
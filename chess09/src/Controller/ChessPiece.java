@@ -165,6 +165,37 @@ public abstract class ChessPiece {
         return false;
     }
 
+    /**
+     * Shared move check for the sliding pieces. The target must lie on one of the allowed
+     * kinds of line, every square in between must be empty and the target must be empty or
+     * hold an opponent's piece. It uses the precomputed ray tables and allocates nothing.
+     *
+     * @param toRow     the row the piece is being moved to
+     * @param toCol     the column the piece is being moved to
+     * @param board     the current board containing all the pieces on it
+     * @param diagonal  true if the piece may move along diagonals
+     * @param straight  true if the piece may move along rows and columns
+     * @return          Returns true if the piece can slide to the given square
+     */
+    protected boolean canSlideTo(int toRow, int toCol, ChessPiece[][] board, boolean diagonal, boolean straight) {
+        int from = row * 8 + col;
+        long target = 1L << (toRow * 8 + toCol);
+        if (!(diagonal && (Rays.DIAGONALS[from] & target) != 0L)
+                && !(straight && (Rays.LINES[from] & target) != 0L)) {
+            return false;
+        }
+        // check if path is clear
+        for (long path = Rays.BETWEEN[from][toRow * 8 + toCol]; path != 0L; path &= path - 1) {
+            int sq = Long.numberOfTrailingZeros(path);
+            if (board[sq >>> 3][sq & 7] != null) {
+                return false;
+            }
+        }
+        // check if destination is empty or has opponent's piece
+        ChessPiece destPiece = board[toRow][toCol];
+        return destPiece == null || destPiece.getColor() != color;
+    }
+
     /**
      * Checks to see if the current chess piece can capture the piece at the given square
      * @param toRow     the row the piece is being moved to, to capture the opponent piece
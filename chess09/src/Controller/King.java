@@ -27,7 +27,6 @@ public class King extends ChessPiece {
             ChessPiece destPiece = board[toRow][toCol];
             if (destPiece == null || destPiece.getColor() != this.getColor()) {
                 // The destination is empty or contains an opponent's piece, so it's a valid move
-                this.setMoved(true);  //changes to true since the king is moving.
                 return true;
             }
         }else if (rowDiff == 0 && colDiff == 2 && !this.hasMoved()){ //checking for castling
@@ -40,10 +39,6 @@ public class King extends ChessPiece {
             }
 
             if(canCastle(this.getRow(), this.getCol(), rook, board)){
-                this.setMoved(true);
-                this.setCastle(true);
-                rook.setMoved(true);
-                rook.setCastle(true);
                 return true;    //returns true if castling is Valid Move
             }
         }
@@ -63,18 +58,8 @@ public class King extends ChessPiece {
      * @see canCastle()
      */
     public boolean isSquareAttacked(int row, int col, PieceColor color, ChessPiece[][] board) {
-        // Check if any opposing piece can legally move to the square
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                ChessPiece piece = board[i][j];
-                if (piece != null && piece.getColor() != this.getColor()) {
-                    if (piece.isValidMove(row, col, board)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        // Check if any opposing piece attacks the square
+        return Attacks.isSquareAttacked(row, col, this.getColor().opposite(), board);
     }
     
 
@@ -2,7 +2,6 @@ package Controller;
 
 public class Pawn extends ChessPiece{
 
-    private Boolean firstMove;  /**@firstMove indicates whether the Pawn can make its first move. True = pawn can move 2 spaces, otherwise false.*/
     private Boolean enPassantVulnerable;
 
     /**
@@ -13,7 +12,6 @@ public class Pawn extends ChessPiece{
      */
     public Pawn(int row, int col, PieceColor color) {
         super(row, col, color);
-        firstMove = true;
         enPassantVulnerable = false;
     }
     
@@ -30,25 +28,19 @@ public class Pawn extends ChessPiece{
         if (this.getColor() == PieceColor.WHITE) {
             if (rowDiff == 1 && colDiff == 0 && targetPiece == null) {
                 // Standard move one square forward
-                this.firstMove = false;
                 return true;
-            } else if (firstMove && rowDiff == 2 && colDiff == 0 && targetPiece == null 
+            } else if (!hasMoved() && rowDiff == 2 && colDiff == 0 && targetPiece == null 
                        && board[fromRow+1][fromCol] == null) {
                 // First move, can move two squares forward
-                this.firstMove = false;
-                this.enPassantVulnerable = true;
                 return true;
             } else if (rowDiff == 1 && colDiff == 1 && targetPiece != null 
                        && targetPiece.getColor() == PieceColor.BLACK) {
                 // Capture diagonally
-                this.firstMove = false;
                 return true;
             } else if(rowDiff == 1 && colDiff == 1 && targetPiece == null 
                        && board[fromRow][toCol] instanceof Pawn && ((Pawn)board[fromRow][toCol]).getEnPassant()
                        && board[fromRow][toCol].getColor() == PieceColor.BLACK){
-                //capture the pawn with enPassant rule
-                this.firstMove = false;
-                board[fromRow][toCol] = null;   //removes opponent's pawn from the board
+                //capture the pawn with enPassant rule; ChessBoard removes the captured pawn
                 return true;
             } else {
                 // Invalid move
@@ -57,25 +49,19 @@ public class Pawn extends ChessPiece{
         } else { // PieceColor.BLACK
             if (rowDiff == -1 && colDiff == 0 && targetPiece == null) {
                 // Standard move one square forward
-                this.firstMove = false;
                 return true;
-            } else if (firstMove && rowDiff == -2 && colDiff == 0 && targetPiece == null 
+            } else if (!hasMoved() && rowDiff == -2 && colDiff == 0 && targetPiece == null 
                        && board[fromRow-1][fromCol] == null) {
                 // First move, can move two squares forward
-                this.firstMove = false;
-                this.enPassantVulnerable = true;
                 return true;
             } else if (rowDiff == -1 && colDiff == 1 && targetPiece != null 
                        && targetPiece.getColor() == PieceColor.WHITE) {
                 // Capture diagonally
-                this.firstMove = false;
                 return true;
             } else if(rowDiff == -1 && colDiff == 1 && targetPiece == null 
                        && board[fromRow][toCol] instanceof Pawn && ((Pawn)board[fromRow][toCol]).getEnPassant()
                        && board[fromRow][toCol].getColor() == PieceColor.WHITE){
-                //capture the pawn with enPassant rule
-                this.firstMove = false;
-                board[fromRow][toCol] = null;   //removes opponent's pawn from the board
+                //capture the pawn with enPassant rule; ChessBoard removes the captured pawn
                 return true;
             } else {
                 // Invalid move
@@ -7,15 +7,8 @@ public class Queen extends ChessPiece{
     }
     @Override
     public boolean isValidMove(int toRow, int toCol, ChessPiece[][] board) {
-        if (toRow == getRow() && toCol == getCol()) {
-            // moving to the same position is not a valid move
-            return false;
-        }
-
-        // check if the move is valid for a bishop or a rook
-        Bishop bishop = new Bishop(getRow(), getCol(), getColor());
-        Rook rook = new Rook(getRow(), getCol(), getColor());
-        return bishop.isValidMove(toRow, toCol, board) || rook.isValidMove(toRow, toCol, board);
+        // the queen moves like a bishop or a rook
+        return canSlideTo(toRow, toCol, board, true, true);
     }
     
     @Override
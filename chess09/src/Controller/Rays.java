@@ -0,0 +1,54 @@
+package Controller;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Precomputed ray tables for the sliding pieces, indexed by square (row * 8 + col). They
+ * let Bishop, Rook and Queen validate a move with a couple of table lookups and no objects.
+ */
+
+final class Rays {
+
+    /** Squares on the same diagonals as a square, not including the square itself */
+    static final long[] DIAGONALS = new long[64];
+    /** Squares on the same row or column as a square, not including the square itself */
+    static final long[] LINES = new long[64];
+    /** Squares strictly between two squares on a shared line or diagonal, otherwise 0 */
+    static final long[][] BETWEEN = new long[64][64];
+
+    /*
+     * Directions as (row step, col step): north, east, north-east, north-west, south, west,
+     * south-west and south-east. The first four go towards higher square indexes and the last
+     * four towards lower ones, which tells a ray scan which end of the blocker mask holds the
+     * nearest blocker. Directions 0, 1, 4 and 5 are straight; 2, 3, 6 and 7 are diagonal.
+     */
+    static final int[][] STEPS = { { 1, 0 }, { 0, 1 }, { 1, 1 }, { 1, -1 }, { -1, 0 }, { 0, -1 }, { -1, -1 }, { -1, 1 } };
+
+    /** Squares from a square to the edge of the board in one direction, indexed [direction][square] */
+    static final long[][] RAYS = new long[8][64];
+
+    static {
+        for (int from = 0; from < 64; from++) {
+            for (int dir = 0; dir < 8; dir++) {
+                int[] step = STEPS[dir];
+                boolean diagonal = step[0] != 0 && step[1] != 0;
+                long path = 0L;
+                for (int row = (from >>> 3) + step[0], col = (from & 7) + step[1];
+                        row >= 0 && row < 8 && col >= 0 && col < 8; row += step[0], col += step[1]) {
+                    int to = row * 8 + col;
+                    if (diagonal) {
+                        DIAGONALS[from] |= 1L << to;
+                    } else {
+                        LINES[from] |= 1L << to;
+                    }
+                    RAYS[dir][from] |= 1L << to;
+                    BETWEEN[from][to] = path;
+                    path |= 1L << to;
+                }
+            }
+        }
+    }
+
+    private Rays() {
+    }
+}
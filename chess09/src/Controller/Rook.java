@@ -7,39 +7,8 @@ public class Rook extends ChessPiece{
     }
     @Override
     public boolean isValidMove(int toRow, int toCol, ChessPiece[][] board) {
-        // check if move is horizontal or vertical
-        if(board[toRow][toCol] != null && board[toRow][toCol].getColor() == getColor())
-        {
-            return false;
-        }
-
-        if (getRow() == toRow || getCol() == toCol) {
-            // check if there are any pieces in the way
-            int start, end;
-            if (getRow() == toRow) {
-                start = Math.min(getCol(), toCol);
-                end = Math.max(getCol(), toCol);
-                for (int i = start + 1; i < end; i++) {
-                    if (board[getRow()][i] != null) {
-                        return false;
-                    }
-                }
-            } else {
-                start = Math.min(getRow(), toRow);
-                end = Math.max(getRow(), toRow);
-                for (int i = start + 1; i < end; i++) {
-                    if (board[i][getCol()] != null) {
-                        return false;
-                    }
-                }
-            }
-            // check if destination square is empty or has an opponent's piece
-            if(board[toRow][toCol] == null || board[toRow][toCol].getColor() != getColor()){
-                this.setMoved(true);      //if the rook moved, change this to true.
-                return true;
-            }
-        }
-        return false;
+        // the move must be horizontal or vertical with a clear path
+        return canSlideTo(toRow, toCol, board, false, true);
     }
 
     @Override
@@ -0,0 +1,133 @@
+package Engine;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import Board.*;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Multi-threaded search using Lazy SMP: every thread runs its own iterative deepening search
+ * of the root on its own copy of the position, and the threads share one transposition
+ * table. The helpers fill the table with results the main thread then finds instead of
+ * searching, so the main thread gets deeper in the same time. The result is the main
+ * thread's, with the nodes of all threads counted. All the threads store their results at
+ * the age of one new search, and count their nodes against one shared budget.
+ *
+ * Usage:
+ *   java Engine.ParallelSearch [threads] [depth] [fen]    searches to depth with 1 thread and then
+ *                                                         with threads (all cores and depth 8 by default)
+ *                                                         and prints the speedup
+ */
+
+public class ParallelSearch {
+    private final int threads;
+    private final TranspositionTable table;
+    private PrintStream output;
+
+    /**
+     * Creates a parallel search
+     * @param threads   the number of search threads, including the main one
+     * @param table     the transposition table shared by the threads
+     */
+    public ParallelSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        this.threads = threads;
+        this.table = table;
+    }
+
+    /**
+     * Sets where the main thread prints a line after every finished iteration
+     * @param output    the stream to print to, or null to print nothing
+     */
+    public void setOutput(PrintStream output) {
+        this.output = output;
+    }
+
+    /**
+     * Searches a position with every thread until the main thread runs out of budget. The
+     * root position is not changed; each thread searches a copy of it, so a ChessBoard can
+     * be searched through ChessBoard.copyPosition().
+     * @param root          the position to search
+     * @param maxDepth      the deepest iteration to run
+     * @param timeMillis    the time budget in milliseconds, or 0 for no limit
+     * @param maxNodes      the node budget of all threads together, or 0 for no limit. The threads
+     *                      add to the shared count every 1024 nodes, so the total can go over
+     *                      it by up to that much per thread
+     * @return              Returns the main thread's best move and principal variation
+     */
+    public SearchResult search(Position root, int maxDepth, long timeMillis, long maxNodes) {
+        long start = System.nanoTime();
+        // once for all the threads, or each would make the others' entries look old
+        table.newSearch();
+        AtomicLong sharedNodes = new AtomicLong();
+        Search[] helpers = new Search[threads - 1];
+        Thread[] workers = new Thread[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            int index = i + 1;
+            Search helper = new Search(new Position(root), table);
+            helper.setHelper(index);
+            helper.shareNodes(sharedNodes);
+            helpers[i] = helper;
+            workers[i] = new Thread(() -> helper.iterate(Search.MAX_PLY, 0, maxNodes), "search-helper-" + index);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+
+        Search main = new Search(new Position(root), table);
+        main.setOutput(output);
+        main.shareNodes(sharedNodes);
+        SearchResult result = main.iterate(maxDepth, timeMillis, maxNodes);
+
+        long nodes = main.getNodes();
+        for (int i = 0; i < workers.length; i++) {
+            // a helper that has not started yet would clear a single stop request, so keep asking
+            while (workers[i].isAlive()) {
+                helpers[i].stop();
+                try {
+                    workers[i].join(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            nodes += helpers[i].getNodes();
+        }
+        return new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(),
+                result.getPrincipalVariation(), nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Gets the number of search threads
+     * @return  Returns the thread count, including the main thread
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    public static void main(String[] args) {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        String fen = args.length > 2 ? String.join(" ", Arrays.copyOfRange(args, 2, args.length)) : Fen.START;
+        int megabytes = Integer.getInteger("hash", TranspositionTable.DEFAULT_MEGABYTES);
+        Position position = new Position();
+        Fen.parse(fen, position);
+
+        // one untimed run first so the JIT has compiled the search before anything is measured
+        new ParallelSearch(1, new TranspositionTable(megabytes)).search(position, Math.max(depth - 2, 1), 0, 0);
+
+        SearchResult single = new ParallelSearch(1, new TranspositionTable(megabytes)).search(position, depth, 0, 0);
+        System.out.println("1 thread:   " + single);
+        if (threads > 1) {
+            SearchResult parallel = new ParallelSearch(threads, new TranspositionTable(megabytes)).search(position, depth, 0, 0);
+            System.out.println(threads + " threads: " + parallel);
+            System.out.printf("speedup %.2fx to depth %d, %.2fx nodes per second%n",
+                    (double) single.getElapsedNanos() / parallel.getElapsedNanos(), depth,
+                    (double) parallel.nodesPerSecond() / Math.max(single.nodesPerSecond(), 1));
+        }
+    }
+}
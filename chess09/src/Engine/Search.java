@@ -0,0 +1,439 @@
+package Engine;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import Board.*;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Alpha-beta search for the computer player. The search is a negamax alpha-beta with a
+ * capture-only quiescence search at the leaves, run by iterative deepening: depth 1, then
+ * depth 2 and so on until the depth, time or node budget runs out. Each iteration searches
+ * the principal variation of the one before it first, then captures (most valuable victim
+ * first) and killer moves, which is what makes the deeper iterations cheap. Results are
+ * kept in a TranspositionTable, which several searches may share.
+ *
+ * All buffers are created with the search, so searching a position allocates nothing per
+ * node. The position is changed while searching but is always restored before a search
+ * returns.
+ *
+ * Usage:
+ *   java Engine.Search [millis] [fen]     searches a position (start position by default) for millis ms (5000 by default)
+ *   java -Dhash=256 Engine.Search ...     uses a 256 MB transposition table (16 MB by default)
+ */
+
+public class Search {
+
+    /** Deepest ply the search can reach, quiescence included */
+    public static final int MAX_PLY = 64;
+    /** Score of checkmating at the root; a mate n plies away scores MATE - n */
+    public static final int MATE = 30000;
+
+    private static final int INFINITY = 32000;
+    private static final int PV_SCORE = 1 << 30;
+    private static final int HASH_MOVE_SCORE = PV_SCORE - 1;
+    private static final int CAPTURE_SCORE = 1 << 20;
+    private static final int KILLER_SCORE = 1 << 19;
+    // how many nodes go by between looks at the clock
+    private static final int CHECK_INTERVAL = 1023;
+
+    private final Position position;
+    private final TranspositionTable table;
+    private final MoveList[] lists = new MoveList[MAX_PLY + 1];
+    private final int[][] orders = new int[MAX_PLY + 1][256];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private final int[] previousPv = new int[MAX_PLY + 1];
+    private int previousPvLength;
+    private boolean followPv;
+
+    private long nodes;
+    private long nodeLimit;
+    // the node count of a parallel search, shared by its threads, or null
+    private AtomicLong sharedNodes;
+    private long sharedTotal;
+    private long deadline;
+    private boolean stopped;
+    private boolean canStop;
+    private int helper;
+    private volatile boolean stopRequested;
+    private PrintStream output;
+
+    /**
+     * Creates a search over a position with a transposition table of its own. Use
+     * ChessBoard.copyPosition() to search the position of a game without changing the board.
+     * @param position  the position to search from
+     */
+    public Search(Position position) {
+        this(position, new TranspositionTable(TranspositionTable.DEFAULT_MEGABYTES));
+    }
+
+    /**
+     * Creates a search over a position that stores its results in the given table
+     * @param position  the position to search from
+     * @param table     the transposition table, which may be shared with other searches
+     */
+    public Search(Position position, TranspositionTable table) {
+        this.position = position;
+        this.table = table;
+        for (int i = 0; i <= MAX_PLY; i++) {
+            lists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Sets where a line is printed after every finished iteration
+     * @param output    the stream to print to, or null to print nothing
+     */
+    public void setOutput(PrintStream output) {
+        this.output = output;
+    }
+
+    /**
+     * Asks a running search to stop. It returns the result of the last finished iteration.
+     * This is the one method that may be called from another thread.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Searches the position by iterative deepening until one of the budgets runs out. The
+     * first iteration always finishes, so a move is returned even with a tiny budget.
+     * @param maxDepth      the deepest iteration to run, from 1 to MAX_PLY
+     * @param timeMillis    the time budget in milliseconds, or 0 for no limit
+     * @param maxNodes      the node budget, or 0 for no limit
+     * @return              Returns the best move and principal variation of the deepest finished iteration
+     */
+    public SearchResult search(int maxDepth, long timeMillis, long maxNodes) {
+        table.newSearch();
+        return iterate(maxDepth, timeMillis, maxNodes);
+    }
+
+    /**
+     * Runs the iterative deepening of search without starting a new search in the table, so
+     * that the threads of a parallel search all store their results at the same age
+     * @param maxDepth      the deepest iteration to run, from 1 to MAX_PLY; less than 1 runs depth 1
+     * @param timeMillis    the time budget in milliseconds, or 0 for no limit
+     * @param maxNodes      the node budget, or 0 for no limit. With a shared node count it is
+     *                      the budget of all the threads sharing it
+     * @return              Returns the best move and principal variation of the deepest finished iteration
+     */
+    SearchResult iterate(int maxDepth, long timeMillis, long maxNodes) {
+        long start = System.nanoTime();
+        deadline = timeMillis > 0 ? start + timeMillis * 1_000_000L : Long.MAX_VALUE;
+        nodeLimit = maxNodes > 0 ? maxNodes : Long.MAX_VALUE;
+        nodes = 0;
+        sharedTotal = 0;
+        stopped = false;
+        canStop = false;
+        stopRequested = false;
+        previousPvLength = 0;
+        for (int[] killer : killers) {
+            killer[0] = Move.NONE;
+            killer[1] = Move.NONE;
+        }
+
+        SearchResult result = null;
+        int lastDepth = Math.max(1, Math.min(maxDepth, MAX_PLY));
+        for (int depth = 1; depth <= lastDepth; depth++) {
+            if (helper > 0 && depth > 1 && ((depth + helper) & 1) == 0) {
+                // helpers skip every other depth, staggered, so they fill the table ahead of the main search
+                continue;
+            }
+            followPv = true;
+            int score = negamax(depth, -INFINITY, INFINITY, 0);
+            if (stopped) {
+                break;
+            }
+            previousPvLength = pvLength[0];
+            System.arraycopy(pv[0], 0, previousPv, 0, previousPvLength);
+            result = new SearchResult(previousPvLength > 0 ? previousPv[0] : Move.NONE, score, depth,
+                    Arrays.copyOf(previousPv, previousPvLength), nodes, System.nanoTime() - start);
+            if (output != null) {
+                output.println(result);
+            }
+            canStop = true;
+            if (previousPvLength == 0) {
+                // no legal move at the root: mated or stalemated, and no deeper search changes that
+                break;
+            }
+            if (Math.abs(score) >= MATE - depth) {
+                // a mate found at this depth will not be improved on by searching deeper
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Makes this search a helper of a parallel search, which skips some depths so that the
+     * helpers do not all search the same tree in the same order
+     * @param index     the index of the helper, starting at 1; 0 makes it a main search again
+     */
+    void setHelper(int index) {
+        this.helper = index;
+    }
+
+    /**
+     * Makes the node budget count the nodes of every search sharing the counter. Each search
+     * adds its nodes to it every CHECK_INTERVAL + 1 nodes, when it also checks the budget.
+     * @param counter   the shared node count, or null for a budget of this search alone
+     */
+    void shareNodes(AtomicLong counter) {
+        this.sharedNodes = counter;
+    }
+
+    /**
+     * Gets the number of positions visited by the current or last search
+     * @return  Returns the node count
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        if (ply > 0 && (position.getHalfmoveClock() >= 100 || position.repetitionCount() > 1
+                || position.isInsufficientMaterial())) {
+            return 0;
+        }
+        int us = position.getSideToMove();
+        int king = position.kingSquare(us);
+        boolean inCheck = king >= 0 && position.isSquareAttacked(king, us ^ 1);
+        if (inCheck) {
+            // look one ply further at checks so a mate is not hidden behind the horizon
+            depth++;
+        }
+        if (depth <= 0 || ply >= MAX_PLY) {
+            return quiesce(alpha, beta, ply);
+        }
+        nodes++;
+        if (checkLimits()) {
+            return 0;
+        }
+
+        long key = position.getZobristKey();
+        long entry = table.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != TranspositionTable.NO_ENTRY) {
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        MoveList moves = lists[ply];
+        MoveGenerator.generatePseudoLegal(position, moves);
+        orderMoves(moves, ply, hashMove);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        int legal = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = nextMove(moves, ply, i);
+            if (!MoveGenerator.isLegal(position, move)) {
+                continue;
+            }
+            legal++;
+            position.makeMove(move);
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            position.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (score >= beta) {
+                        if (!Move.is(move, Move.CAPTURE) && killers[ply][0] != move) {
+                            killers[ply][1] = killers[ply][0];
+                            killers[ply][0] = move;
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        if (legal == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bound == TranspositionTable.UPPER ? Move.NONE : bestMove, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    private int quiesce(int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        nodes++;
+        if (checkLimits()) {
+            return 0;
+        }
+        int standPat = Evaluator.evaluate(position);
+        if (standPat >= beta || ply >= MAX_PLY) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        MoveList moves = lists[ply];
+        MoveGenerator.generatePseudoLegal(position, moves);
+        orderMoves(moves, ply, Move.NONE);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = nextMove(moves, ply, i);
+            if (!Move.is(move, Move.CAPTURE) && Move.promotion(move) != Position.QUEEN) {
+                // captures and queen promotions are ordered first, so the rest are quiet
+                break;
+            }
+            if (!MoveGenerator.isLegal(position, move)) {
+                continue;
+            }
+            position.makeMove(move);
+            int score = -quiesce(-beta, -alpha, ply + 1);
+            position.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > alpha) {
+                alpha = score;
+                updatePv(ply, move);
+                if (score >= beta) {
+                    break;
+                }
+            }
+        }
+        return alpha;
+    }
+
+    /**
+     * Scores every move for ordering: the move from the last principal variation, then
+     * captures by most valuable victim and least valuable attacker, then queen promotions,
+     * then the killer moves of this ply. The move stored in the transposition table comes
+     * right after the principal variation move.
+     */
+    private void orderMoves(MoveList moves, int ply, int hashMove) {
+        int pvMove = Move.NONE;
+        if (followPv) {
+            followPv = false;
+            if (ply < previousPvLength) {
+                pvMove = previousPv[ply];
+            }
+        }
+        int[] order = orders[ply];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int score = 0;
+            if (move == pvMove) {
+                score = PV_SCORE;
+                followPv = true;
+            } else if (move == hashMove) {
+                score = HASH_MOVE_SCORE;
+            } else if (Move.is(move, Move.CAPTURE)) {
+                int victim = Move.is(move, Move.EN_PASSANT) ? Position.PAWN : Position.typeOf(position.pieceAt(Move.to(move)));
+                int attacker = Position.typeOf(position.pieceAt(Move.from(move)));
+                score = CAPTURE_SCORE + Evaluator.VALUES[victim] * 8 - attacker;
+            } else if (Move.promotion(move) == Position.QUEEN) {
+                score = CAPTURE_SCORE;
+            } else if (move == killers[ply][0]) {
+                score = KILLER_SCORE + 1;
+            } else if (move == killers[ply][1]) {
+                score = KILLER_SCORE;
+            }
+            order[i] = score;
+        }
+    }
+
+    /**
+     * Moves the best scored move left in the list to index i and returns it. Picking one
+     * move at a time is cheaper than sorting when a cutoff comes early.
+     */
+    private int nextMove(MoveList moves, int ply, int i) {
+        int[] order = orders[ply];
+        int best = i;
+        for (int j = i + 1; j < moves.size(); j++) {
+            if (order[j] > order[best]) {
+                best = j;
+            }
+        }
+        int move = moves.get(best);
+        if (best != i) {
+            moves.set(best, moves.get(i));
+            moves.set(i, move);
+            int score = order[best];
+            order[best] = order[i];
+            order[i] = score;
+        }
+        return move;
+    }
+
+    private void updatePv(int ply, int move) {
+        pv[ply][ply] = move;
+        int length = pvLength[ply + 1];
+        System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, length - ply - 1);
+        pvLength[ply] = Math.max(length, ply + 1);
+    }
+
+    /**
+     * Mate scores count plies from the root, but a table entry can be reached from many
+     * roots, so they are stored counting plies from the entry's own position instead
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    private boolean checkLimits() {
+        if (sharedNodes != null && (nodes & CHECK_INTERVAL) == 0) {
+            sharedTotal = sharedNodes.addAndGet(CHECK_INTERVAL + 1);
+        }
+        long counted = sharedNodes != null ? sharedTotal : nodes;
+        if (canStop && !stopped && (counted >= nodeLimit
+                || ((nodes & CHECK_INTERVAL) == 0 && (stopRequested || System.nanoTime() - deadline >= 0)))) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    public static void main(String[] args) {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 5000;
+        String fen = args.length > 1 ? String.join(" ", Arrays.copyOfRange(args, 1, args.length)) : Fen.START;
+        Position position = new Position();
+        Fen.parse(fen, position);
+        Search search = new Search(position, new TranspositionTable(Integer.getInteger("hash", TranspositionTable.DEFAULT_MEGABYTES)));
+        search.setOutput(System.out);
+        SearchResult result = search.search(MAX_PLY, millis, 0);
+        // 0000 is the null move of UCI, for a side with no legal move
+        System.out.println("bestmove " + (result.getBestMove() == Move.NONE ? "0000" : Move.toCoordinate(result.getBestMove())));
+    }
+}
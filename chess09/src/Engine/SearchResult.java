@@ -0,0 +1,124 @@
+package Engine;
+
+import Board.Move;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * The outcome of a search: the best move, its score, the principal variation (the line both
+ * sides are expected to play) and how much work the search did to find it.
+ */
+
+public final class SearchResult {
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final int[] principalVariation;
+    private final long nodes;
+    private final long elapsedNanos;
+
+    /**
+     * Creates a search result
+     * @param bestMove              the best packed move, or Move.NONE if there is no legal move
+     * @param score                 the score of the best move in centipawns, from the mover's point of view
+     * @param depth                 the depth of the last completed iteration
+     * @param principalVariation    the expected line of play, starting with the best move
+     * @param nodes                 the number of positions the search visited
+     * @param elapsedNanos          the time the search took
+     */
+    public SearchResult(int bestMove, int score, int depth, int[] principalVariation, long nodes, long elapsedNanos) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.principalVariation = principalVariation.clone();
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the best move found
+     * @return  Returns the packed move, or Move.NONE if the side to move has no legal move
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * Gets the score of the best move
+     * @return  Returns the score in centipawns from the point of view of the side to move
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the depth of the deepest iteration that finished
+     * @return  Returns the depth in plies
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Gets the principal variation
+     * @return  Returns a copy of the packed moves of the expected line, best move first
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    /**
+     * Gets the number of positions visited
+     * @return  Returns the node count of the whole search
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Gets how long the search took
+     * @return  Returns the elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Gets the search speed
+     * @return  Returns the nodes searched per second
+     */
+    public long nodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+
+    /**
+     * Checks if the score is a forced mate for either side
+     * @return  Returns true if the score counts the moves to a checkmate
+     */
+    public boolean isMateScore() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    /**
+     * Returns the result as one line, in the same form the search prints after each iteration
+     * @return  Returns the depth, score, nodes, speed and principal variation of the search
+     */
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("depth ").append(depth);
+        if (isMateScore()) {
+            int plies = Search.MATE - Math.abs(score);
+            sb.append(" score mate ").append(score > 0 ? (plies + 1) / 2 : -(plies / 2));
+        } else {
+            sb.append(" score cp ").append(score);
+        }
+        sb.append(" nodes ").append(nodes)
+          .append(" nps ").append(nodesPerSecond())
+          .append(" time ").append(elapsedNanos / 1_000_000)
+          .append(" pv");
+        for (int move : principalVariation) {
+            sb.append(' ').append(Move.toCoordinate(move));
+        }
+        return sb.toString();
+    }
+}
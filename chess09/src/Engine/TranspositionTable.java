@@ -0,0 +1,188 @@
+package Engine;
+
+import java.util.Arrays;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Fixed-size table of search results keyed by the Zobrist key of a position, shared by every
+ * search thread without locks. Entries live in a flat long[]: each takes two longs, the data
+ * word and the key XOR-ed with the data. A reader XORs the two back together and only trusts
+ * the entry if the key matches, so an entry torn by two threads writing at once is treated
+ * as a miss instead of being read as garbage.
+ *
+ * Entries are grouped in buckets of two. The first slot keeps the deepest result of the
+ * current search and the second is always replaced, so deep results are not pushed out by
+ * the many shallow ones while fresh results still get stored. Results from older searches
+ * are replaced first.
+ *
+ * A data word packs the move (bits 0-31), the score (32-47), the depth (48-55), the bound
+ * (56-57) and the age of the search that stored it (58-63). A stored entry always has a
+ * bound, so a data word of 0 means "no entry".
+ */
+
+public final class TranspositionTable {
+
+    /** Bound types of a stored score */
+    public static final int UPPER = 1;
+    public static final int LOWER = 2;
+    public static final int EXACT = 3;
+
+    /** Returned by probe when the position is not in the table */
+    public static final long NO_ENTRY = 0L;
+
+    /** Size used when none is given, in megabytes */
+    public static final int DEFAULT_MEGABYTES = 16;
+
+    private static final int MAX_AGE = 63;
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int age;
+
+    /**
+     * Creates a table. The size is rounded down to a power of two number of buckets, and is
+     * capped at what a single Java array can hold (8 GB).
+     * @param megabytes     the memory the table may use
+     */
+    public TranspositionTable(int megabytes) {
+        long longs = Math.max((long) megabytes << 17, 4);
+        longs = Math.min(Long.highestOneBit(longs), 1L << 30);
+        table = new long[(int) longs];
+        bucketMask = (int) (longs / 4) - 1;
+    }
+
+    /**
+     * Marks the start of a new search, so that entries from earlier searches are replaced
+     * before entries from this one
+     */
+    public void newSearch() {
+        age = (age + 1) & MAX_AGE;
+    }
+
+    /**
+     * Removes every entry
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        age = 0;
+    }
+
+    /**
+     * Looks a position up
+     * @param key   the Zobrist key of the position
+     * @return      Returns the data word of the entry, or NO_ENTRY if the position is not stored
+     */
+    public long probe(long key) {
+        int index = bucket(key);
+        for (int slot = index; slot < index + 4; slot += 2) {
+            long data = table[slot + 1];
+            if ((table[slot] ^ data) == key && data != NO_ENTRY) {
+                return data;
+            }
+        }
+        return NO_ENTRY;
+    }
+
+    /**
+     * Stores a search result
+     * @param key       the Zobrist key of the position
+     * @param move      the best packed move found, or Move.NONE
+     * @param score     the score, already adjusted so mate scores are relative to this position
+     * @param depth     the depth the position was searched to
+     * @param bound     UPPER, LOWER or EXACT
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = bucket(key);
+        int current = age;
+        long first = table[index + 1];
+        int slot;
+        if ((table[index] ^ first) == key || age(first) != current || depth >= depth(first)) {
+            slot = index;
+        } else {
+            slot = index + 2;
+        }
+        long old = table[slot + 1];
+        if (move == 0 && (table[slot] ^ old) == key) {
+            // keep the move of an earlier, shallower search of the same position
+            move = move(old);
+        }
+        long data = (move & 0xFFFFFFFFL)
+                | ((long) (score & 0xFFFF) << 32)
+                | ((long) Math.min(Math.max(depth, 0), 255) << 48)
+                | ((long) bound << 56)
+                | ((long) current << 58);
+        table[slot] = key ^ data;
+        table[slot + 1] = data;
+    }
+
+    /**
+     * Estimates how full the table is by sampling its first buckets
+     * @return  Returns the number of sampled slots in a thousand holding an entry of the current search
+     */
+    public int hashfull() {
+        int slots = Math.min(1000, table.length / 2);
+        int used = 0;
+        int current = age;
+        for (int i = 0; i < slots; i++) {
+            long data = table[i * 2 + 1];
+            if (data != NO_ENTRY && age(data) == current) {
+                used++;
+            }
+        }
+        return used * 1000 / slots;
+    }
+
+    /**
+     * Gets the number of entries the table can hold
+     * @return  Returns the capacity of the table
+     */
+    public int capacity() {
+        return table.length / 2;
+    }
+
+    /**
+     * Gets the best move of an entry
+     * @param data  the data word returned by probe
+     * @return      Returns the packed move, or Move.NONE
+     */
+    public static int move(long data) {
+        return (int) data;
+    }
+
+    /**
+     * Gets the score of an entry
+     * @param data  the data word returned by probe
+     * @return      Returns the stored score
+     */
+    public static int score(long data) {
+        return (short) (data >>> 32);
+    }
+
+    /**
+     * Gets the depth of an entry
+     * @param data  the data word returned by probe
+     * @return      Returns the depth the position was searched to
+     */
+    public static int depth(long data) {
+        return (int) (data >>> 48) & 255;
+    }
+
+    /**
+     * Gets the bound of an entry
+     * @param data  the data word returned by probe
+     * @return      Returns UPPER, LOWER or EXACT
+     */
+    public static int bound(long data) {
+        return (int) (data >>> 56) & 3;
+    }
+
+    private static int age(long data) {
+        return (int) (data >>> 58) & MAX_AGE;
+    }
+
+    private int bucket(long key) {
+        // the low bits of the key pick the bucket; the whole key is still checked on a probe
+        return ((int) key & bucketMask) << 2;
+    }
+}
@@ -0,0 +1,170 @@
+package Perft;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import Board.*;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Perft spread over a ForkJoinPool. The moves at the root, and at the second ply for deep
+ * counts, each become a task with its own copy of the position, so the workers share
+ * nothing that changes. Adding up the subtree counts gives exactly the serial total no
+ * matter how the work is scheduled.
+ *
+ * Usage:
+ *   java Perft.ParallelPerft [depth] [threads] [fen]     counts a position (start position and depth 6 by default)
+ *                                                        with 1 to threads workers (all cores by default),
+ *                                                        checks each total against the serial count and prints
+ *                                                        the scaling curve
+ *   java -Dhash=256 Perft.ParallelPerft ...              does the same with a 256 MB perft cache shared by the workers
+ */
+
+public class ParallelPerft implements AutoCloseable {
+
+    // below this depth the second ply is not split, because its subtrees are too small to be worth a task
+    private static final int SECOND_PLY_DEPTH = 5;
+
+    private final ForkJoinPool pool;
+    private final PerftCache cache;
+
+    /**
+     * Creates a parallel perft with its own pool of workers
+     * @param threads   the number of worker threads
+     */
+    public ParallelPerft(int threads) {
+        this(threads, null);
+    }
+
+    /**
+     * Creates a parallel perft whose workers share a cache of subtree counts
+     * @param threads   the number of worker threads
+     * @param cache     the cache of subtree counts, or null to count everything
+     */
+    public ParallelPerft(int threads, PerftCache cache) {
+        pool = new ForkJoinPool(threads);
+        this.cache = cache;
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree. The position is not changed.
+     * @param position  the position to count from
+     * @param depth     the number of plies to search
+     * @return          Returns the number of leaf nodes, the same as Perft.count
+     */
+    public long count(Position position, int depth) {
+        int splitPlies = depth >= SECOND_PLY_DEPTH ? 2 : 1;
+        return pool.invoke(new SubtreeTask(new Position(position), depth, splitPlies, cache));
+    }
+
+    /**
+     * Gets the number of worker threads
+     * @return  Returns the parallelism of the pool
+     */
+    public int getThreads() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Shuts the worker threads down
+     */
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Counts a position with 1 to maxThreads workers and prints the time, speed and speedup
+     * of each, checking every total against the serial count
+     * @param position      the position to count from
+     * @param depth         the number of plies to search
+     * @param maxThreads    the largest number of workers to try
+     * @param megabytes     the size of a fresh perft cache for each run, or 0 to count without one
+     * @param out           the stream to print the curve to
+     * @return              Returns true if every parallel total matched the serial count
+     */
+    public static boolean printScaling(Position position, int depth, int maxThreads, int megabytes, PrintStream out) {
+        long start = System.nanoTime();
+        long expected = new Perft(new Position(position)).count(depth);
+        long serialTime = System.nanoTime() - start;
+        out.printf("serial     %12d nodes %8d ms %12d nps%n", expected, serialTime / 1000000L,
+                Perft.nodesPerSecond(expected, serialTime));
+
+        boolean passed = true;
+        long oneThreadTime = 0L;
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            PerftCache cache = megabytes > 0 ? new PerftCache(megabytes) : null;
+            try (ParallelPerft perft = new ParallelPerft(threads, cache)) {
+                start = System.nanoTime();
+                long nodes = perft.count(position, depth);
+                long elapsed = System.nanoTime() - start;
+                if (threads == 1) {
+                    oneThreadTime = elapsed;
+                }
+                boolean ok = nodes == expected;
+                passed &= ok;
+                out.printf("%2d threads %12d nodes %8d ms %12d nps  speedup %.2fx %s%n", threads, nodes,
+                        elapsed / 1000000L, Perft.nodesPerSecond(nodes, elapsed),
+                        (double) oneThreadTime / elapsed, ok ? "OK" : "FAILED, expected " + expected);
+            }
+            if (cache != null) {
+                Perft.printHitRate(cache, out);
+            }
+        }
+        return passed;
+    }
+
+    /**
+     * Counts the subtree below a position, splitting its moves into further tasks while
+     * there are split plies left
+     */
+    private static final class SubtreeTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final Position position;
+        private final int depth;
+        private final int splitPlies;
+        private final PerftCache cache;
+
+        SubtreeTask(Position position, int depth, int splitPlies, PerftCache cache) {
+            this.position = position;
+            this.depth = depth;
+            this.splitPlies = splitPlies;
+            this.cache = cache;
+        }
+
+        @Override
+        protected Long compute() {
+            if (splitPlies == 0 || depth <= 1) {
+                return new Perft(position, cache).count(depth);
+            }
+            MoveList moves = new MoveList();
+            MoveGenerator.generateLegal(position, moves);
+            SubtreeTask[] tasks = new SubtreeTask[moves.size()];
+            for (int i = 0; i < tasks.length; i++) {
+                Position child = new Position(position);
+                child.makeMove(moves.get(i));
+                tasks[i] = new SubtreeTask(child, depth - 1, splitPlies - 1, cache);
+            }
+            invokeAll(tasks);
+            long nodes = 0L;
+            for (SubtreeTask task : tasks) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String fen = args.length > 2 ? String.join(" ", Arrays.copyOfRange(args, 2, args.length)) : Fen.START;
+        Position position = new Position();
+        Fen.parse(fen, position);
+        if (!printScaling(position, depth, threads, Integer.getInteger("hash", 0), System.out)) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package Perft;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+import Board.*;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Perft (performance test) driver. It walks the legal move tree of a position to a fixed
+ * depth with the same move generator and make/unmake code that ChessBoard uses, and counts
+ * the leaf nodes. Comparing the counts with published values catches rule regressions, and
+ * the nodes per second track how fast the move path is. An optional PerftCache lets deep
+ * counts reuse the counts of subtrees reached by transposition.
+ *
+ * Usage:
+ *   java Perft.Perft                      checks every reference position up to depth 4
+ *   java Perft.Perft suite [maxDepth]     checks every reference position up to maxDepth
+ *   java Perft.Perft depth [fen]          prints the divide counts of a position (start position by default)
+ *   java -Dhash=256 Perft.Perft ...       does either with a 256 MB perft cache
+ */
+
+public class Perft {
+    private static final int MAX_DEPTH = 32;
+
+    private final Position position;
+    private final PerftCache cache;
+    private final MoveList[] lists = new MoveList[MAX_DEPTH];
+
+    /**
+     * Creates a perft driver over a position. The position is changed while counting but is
+     * always restored before a count returns.
+     * @param position  the position to count from
+     */
+    public Perft(Position position) {
+        this(position, null);
+    }
+
+    /**
+     * Creates a perft driver that looks subtree counts up in a cache before counting them
+     * @param position  the position to count from
+     * @param cache     the cache of subtree counts, or null to count everything
+     */
+    public Perft(Position position, PerftCache cache) {
+        this.position = position;
+        this.cache = cache;
+        for (int i = 0; i < MAX_DEPTH; i++) {
+            lists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree
+     * @param depth     the number of plies to search
+     * @return          Returns the number of leaf nodes
+     */
+    public long count(int depth) {
+        if (depth <= 0) {
+            return 1L;
+        }
+        return count(depth, 0);
+    }
+
+    private long count(int depth, int ply) {
+        long key = 0L;
+        if (cache != null && depth > 1) {
+            key = position.getZobristKey();
+            long cached = cache.probe(key, depth);
+            if (cached >= 0L) {
+                return cached;
+            }
+        }
+        MoveList moves = lists[ply];
+        MoveGenerator.generateLegal(position, moves);
+        if (depth == 1) {
+            // bulk count the last ply instead of playing every move
+            return moves.size();
+        }
+        long nodes = 0L;
+        for (int i = 0; i < moves.size(); i++) {
+            position.makeMove(moves.get(i));
+            nodes += count(depth - 1, ply + 1);
+            position.unmakeMove();
+        }
+        if (cache != null) {
+            cache.store(key, depth, nodes);
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the leaf nodes below each root move and prints them, followed by the total
+     * and the speed of the count
+     * @param depth     the number of plies to search
+     * @param out       the stream to print to
+     * @return          Returns the total number of leaf nodes
+     */
+    public long divide(int depth, PrintStream out) {
+        long start = System.nanoTime();
+        MoveList root = new MoveList();
+        MoveGenerator.generateLegal(position, root);
+        long total = 0L;
+        for (int i = 0; i < root.size(); i++) {
+            int move = root.get(i);
+            position.makeMove(move);
+            long nodes = depth > 1 ? count(depth - 1, 0) : 1L;
+            position.unmakeMove();
+            out.println(Move.toCoordinate(move) + ": " + nodes);
+            total += nodes;
+        }
+        long elapsed = System.nanoTime() - start;
+        out.println();
+        out.println("Moves: " + root.size());
+        out.println("Nodes: " + total);
+        out.println("Time:  " + elapsed / 1000000L + " ms");
+        out.println("NPS:   " + nodesPerSecond(total, elapsed));
+        return total;
+    }
+
+    /**
+     * Checks every reference position against its known counts
+     * @param maxDepth  the deepest depth to check
+     * @param out       the stream to print the results to
+     * @return          Returns true if every count matched
+     */
+    public static boolean runSuite(int maxDepth, PrintStream out) {
+        return runSuite(maxDepth, out, null);
+    }
+
+    /**
+     * Checks every reference position against its known counts, reusing subtree counts from
+     * a cache
+     * @param maxDepth  the deepest depth to check
+     * @param out       the stream to print the results to
+     * @param cache     the cache of subtree counts, or null to count everything
+     * @return          Returns true if every count matched
+     */
+    public static boolean runSuite(int maxDepth, PrintStream out, PerftCache cache) {
+        boolean passed = true;
+        long totalNodes = 0L;
+        long totalTime = 0L;
+        Position position = new Position();
+        for (ReferencePosition reference : ReferencePosition.values()) {
+            Fen.parse(reference.getFen(), position);
+            Perft perft = new Perft(position, cache);
+            for (int depth = 1; depth <= Math.min(maxDepth, reference.getMaxDepth()); depth++) {
+                long start = System.nanoTime();
+                long nodes = perft.count(depth);
+                long elapsed = System.nanoTime() - start;
+                long expected = reference.getCount(depth);
+                boolean ok = nodes == expected;
+                passed &= ok;
+                totalNodes += nodes;
+                totalTime += elapsed;
+                out.printf("%-10s depth %d: %12d %s (%d nps)%n", reference, depth, nodes,
+                        ok ? "OK" : "FAILED, expected " + expected, nodesPerSecond(nodes, elapsed));
+            }
+        }
+        out.println();
+        out.println((passed ? "All counts matched. " : "Some counts did not match. ")
+                + totalNodes + " nodes at " + nodesPerSecond(totalNodes, totalTime) + " nps");
+        if (cache != null) {
+            printHitRate(cache, out);
+        }
+        return passed;
+    }
+
+    /**
+     * Prints how often the cache already held a subtree count
+     * @param cache     the cache to report on
+     * @param out       the stream to print to
+     */
+    static void printHitRate(PerftCache cache, PrintStream out) {
+        out.printf("Cache: %d hits in %d probes (%.1f%%)%n", cache.getHits(), cache.getProbes(), cache.hitRate() * 100);
+    }
+
+    /**
+     * Works out a speed in nodes per second
+     * @param nodes     the number of nodes counted
+     * @param nanos     the time taken in nanoseconds
+     * @return          Returns the number of nodes per second
+     */
+    static long nodesPerSecond(long nodes, long nanos) {
+        return nanos <= 0L ? 0L : nodes * 1000000000L / nanos;
+    }
+
+    /**
+     * Runs the reference suite or prints the divide counts of one position
+     * @param args  "suite [maxDepth]", or "depth [fen]"
+     */
+    public static void main(String[] args) {
+        int megabytes = Integer.getInteger("hash", 0);
+        PerftCache cache = megabytes > 0 ? new PerftCache(megabytes) : null;
+        if (args.length == 0 || args[0].equalsIgnoreCase("suite")) {
+            int maxDepth = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+            if (!runSuite(maxDepth, System.out, cache)) {
+                System.exit(1);
+            }
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        String fen = args.length > 1 ? String.join(" ", Arrays.copyOfRange(args, 1, args.length)) : Fen.START;
+        Position position = new Position();
+        Fen.parse(fen, position);
+        new Perft(position, cache).divide(depth, System.out);
+        if (cache != null) {
+            printHitRate(cache, System.out);
+        }
+    }
+}
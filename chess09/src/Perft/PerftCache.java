@@ -0,0 +1,111 @@
+package Perft;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Fixed-size cache of subtree counts for perft, keyed by the Zobrist key of a position and
+ * the depth counted below it. The same position is reached by many move orders, so a deep
+ * count finds most of its subtrees already counted.
+ *
+ * Entries live in a flat long[] of two longs each: the data word, and the key XOR-ed with
+ * the data. A reader only trusts an entry whose key comes back intact, so the cache can be
+ * shared by the workers of a ParallelPerft without locks. A data word packs the count into
+ * bits 0-55 and the depth into 56-63. Entries are grouped in buckets of two: the first slot
+ * keeps the deepest count seen, since it saves the most work, and the second is always
+ * replaced.
+ */
+
+public final class PerftCache {
+    private static final long COUNT_MASK = (1L << 56) - 1;
+
+    private final long[] table;
+    private final int bucketMask;
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Creates a cache. The size is rounded down to a power of two number of buckets.
+     * @param megabytes     the memory the cache may use
+     */
+    public PerftCache(int megabytes) {
+        long longs = Math.max((long) megabytes << 17, 4);
+        longs = Math.min(Long.highestOneBit(longs), 1L << 30);
+        table = new long[(int) longs];
+        bucketMask = (int) (longs / 4) - 1;
+    }
+
+    /**
+     * Looks up the count of a subtree
+     * @param key       the Zobrist key of the position
+     * @param depth     the number of plies counted below the position
+     * @return          Returns the cached count, or -1 if it is not cached
+     */
+    public long probe(long key, int depth) {
+        probes.increment();
+        int index = bucket(key, depth);
+        for (int slot = index; slot < index + 4; slot += 2) {
+            long data = table[slot + 1];
+            if ((table[slot] ^ data) == key && (int) (data >>> 56) == depth) {
+                hits.increment();
+                return data & COUNT_MASK;
+            }
+        }
+        return -1L;
+    }
+
+    /**
+     * Stores the count of a subtree
+     * @param key       the Zobrist key of the position
+     * @param depth     the number of plies counted below the position
+     * @param count     the number of leaf nodes below the position
+     */
+    public void store(long key, int depth, long count) {
+        int index = bucket(key, depth);
+        int slot = depth >= (int) (table[index + 1] >>> 56) ? index : index + 2;
+        long data = ((long) depth << 56) | (count & COUNT_MASK);
+        table[slot] = key ^ data;
+        table[slot + 1] = data;
+    }
+
+    /**
+     * Gets the share of probes that found a count
+     * @return  Returns the hit rate, from 0 to 1
+     */
+    public double hitRate() {
+        long total = probes.sum();
+        return total == 0L ? 0.0 : (double) hits.sum() / total;
+    }
+
+    /**
+     * Gets the number of probes made since the cache was created or cleared
+     * @return  Returns the probe count
+     */
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    /**
+     * Gets the number of probes that found a count
+     * @return  Returns the hit count
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Removes every entry and resets the hit statistics
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        probes.reset();
+        hits.reset();
+    }
+
+    private int bucket(long key, int depth) {
+        // the same position at different depths goes to different buckets
+        return (((int) (key ^ (key >>> 32)) + depth * 0x9E3779B9) & bucketMask) << 2;
+    }
+}
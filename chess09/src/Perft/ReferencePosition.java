@@ -0,0 +1,58 @@
+package Perft;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Standard perft test positions and their published leaf node counts. Together they cover
+ * castling through attacked squares, en passant (including discovered checks along the
+ * row), promotions and checks, which are the rules most likely to regress.
+ */
+
+public enum ReferencePosition {
+
+    START("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            20L, 400L, 8902L, 197281L, 4865609L, 119060324L),
+    KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            48L, 2039L, 97862L, 4085603L, 193690690L),
+    POSITION_3("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            14L, 191L, 2812L, 43238L, 674624L, 11030083L, 178633661L),
+    POSITION_4("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            6L, 264L, 9467L, 422333L, 15833292L),
+    POSITION_5("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            44L, 1486L, 62379L, 2103487L, 89941194L),
+    POSITION_6("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            46L, 2079L, 89890L, 3894594L, 164075551L);
+
+    private final String fen;
+    private final long[] counts;
+
+    ReferencePosition(String fen, long... counts) {
+        this.fen = fen;
+        this.counts = counts;
+    }
+
+    /**
+     * Gets the position in FEN
+     * @return  Returns the FEN record of the position
+     */
+    public String getFen() {
+        return fen;
+    }
+
+    /**
+     * Gets the deepest depth with a known count
+     * @return  Returns the maximum depth that can be checked
+     */
+    public int getMaxDepth() {
+        return counts.length;
+    }
+
+    /**
+     * Gets the known leaf node count
+     * @param depth     the perft depth, from 1 to getMaxDepth()
+     * @return          Returns the number of leaf nodes at that depth
+     */
+    public long getCount(int depth) {
+        return counts[depth - 1];
+    }
+}
@@ -0,0 +1,177 @@
+package Pgn;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import Board.*;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * One game of a PGN file: its tag pairs, its moves as packed ints and its result. The
+ * reader fills the same object game after game, so reading an archive does not create a
+ * new game object, or a string per move, for every game.
+ */
+
+public class PgnGame {
+
+    /** Result of a game that white won */
+    public static final String WHITE_WINS = "1-0";
+    /** Result of a game that black won */
+    public static final String BLACK_WINS = "0-1";
+    /** Result of a drawn game */
+    public static final String DRAW = "1/2-1/2";
+    /** Result of a game that is unfinished or whose result is unknown */
+    public static final String UNKNOWN = "*";
+
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private int[] moves = new int[256];
+    private int moveCount;
+    private String result = UNKNOWN;
+    private String error;
+
+    /**
+     * Creates an empty game
+     */
+    public PgnGame() {
+    }
+
+    /**
+     * Creates a game from the moves played on a board. If the board did not start from the
+     * standard position, the starting position is recorded in the SetUp and FEN tags.
+     * @param board     the board the game was played on
+     * @param result    the result of the game, such as WHITE_WINS or DRAW
+     * @return          Returns the game, with the seven standard tags set to unknown values
+     */
+    public static PgnGame of(ChessBoard board, String result) {
+        PgnGame game = new PgnGame();
+        for (String tag : PgnWriter.SEVEN_TAG_ROSTER) {
+            game.setTag(tag, "Date".equals(tag) ? "????.??.??" : "?");
+        }
+        Position start = board.copyPosition();
+        while (start.getPly() > 0) {
+            start.unmakeMove();
+        }
+        String fen = Fen.format(start);
+        if (!fen.equals(Fen.START)) {
+            game.setTag("SetUp", "1");
+            game.setTag("FEN", fen);
+        }
+        for (int i = 0; i < board.getMoveCount(); i++) {
+            game.addMove(board.getMove(i));
+        }
+        game.setResult(result);
+        return game;
+    }
+
+    /**
+     * Empties the game so it can be filled again
+     */
+    public void clear() {
+        tags.clear();
+        moveCount = 0;
+        result = UNKNOWN;
+        error = null;
+    }
+
+    /**
+     * Gets the value of a tag
+     * @param name  the tag name, such as White or FEN
+     * @return      Returns the tag value, or null if the game does not have the tag
+     */
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    /**
+     * Sets the value of a tag
+     * @param name      the tag name
+     * @param value     the tag value
+     */
+    public void setTag(String name, String value) {
+        tags.put(name, value);
+    }
+
+    /**
+     * Gets every tag of the game
+     * @return  Returns a read-only view of the tags, in the order they were set
+     */
+    public Map<String, String> getTags() {
+        return Collections.unmodifiableMap(tags);
+    }
+
+    /**
+     * Adds a move to the end of the game
+     * @param move  the packed move
+     */
+    public void addMove(int move) {
+        if (moveCount == moves.length) {
+            moves = Arrays.copyOf(moves, moveCount * 2);
+        }
+        moves[moveCount++] = move;
+    }
+
+    /**
+     * Gets the number of moves (plies) in the game
+     * @return  Returns the number of moves
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Gets a move of the game
+     * @param index     the index of the move, 0 being the first move played
+     * @return          Returns the packed move
+     */
+    public int getMove(int index) {
+        if (index < 0 || index >= moveCount) {
+            throw new IndexOutOfBoundsException("move " + index + " of " + moveCount);
+        }
+        return moves[index];
+    }
+
+    /**
+     * Gets the result of the game
+     * @return  Returns WHITE_WINS, BLACK_WINS, DRAW or UNKNOWN
+     */
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * Sets the result of the game
+     * @param result    WHITE_WINS, BLACK_WINS, DRAW or UNKNOWN
+     */
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    /**
+     * Checks if every move of the game was legal
+     * @return  Returns true if the game replayed without an error
+     */
+    public boolean isValid() {
+        return error == null;
+    }
+
+    /**
+     * Gets what went wrong replaying the game
+     * @return  Returns the error message, or null if the game is valid
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Marks the game as invalid. Only the first error is kept.
+     * @param error     the error message
+     */
+    public void setError(String error) {
+        if (this.error == null) {
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package Pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import Board.*;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Streaming PGN reader. The file is read through a channel into one fixed buffer and
+ * scanned a byte at a time, so memory use stays the same however large the archive is.
+ * Every move is resolved against a ChessBoard as it is read, which checks it with the same
+ * rules the game uses; a game with an illegal or ambiguous move is still read to its end
+ * but is marked invalid. Comments, variations and numeric annotations are skipped. Text
+ * that is already in memory, such as one slice of a larger file, can be read in place.
+ *
+ * Usage:
+ *   java Pgn.PgnReader file...     replays every game of the files and prints the counts and games per second
+ */
+
+public class PgnReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    // longest tag value or move kept; anything longer is cut off
+    private static final int MAX_TOKEN = 1 << 12;
+    private static final int END = -1;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final ChessBoard board = new ChessBoard();
+    private final StringBuilder token = new StringBuilder(64);
+    private final byte[] value = new byte[MAX_TOKEN];
+    private int pushedBack = END;
+    private boolean endOfInput;
+    private long bytes;
+
+    /**
+     * Creates a reader over a channel
+     * @param channel   the channel the PGN text is read from
+     */
+    public PgnReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.flip();
+    }
+
+    /**
+     * Creates a reader over PGN text that is already in memory. The bytes are read in place.
+     * @param data      the array holding the text
+     * @param offset    the index of the first byte of the text
+     * @param length    the number of bytes of text
+     */
+    public PgnReader(byte[] data, int offset, int length) {
+        channel = null;
+        buffer = ByteBuffer.wrap(data, offset, length);
+        endOfInput = true;
+        bytes = length;
+    }
+
+    /**
+     * Opens a PGN file
+     * @param path  the file to read
+     * @return      Returns a reader over the file
+     * @throws IOException if the file cannot be opened
+     */
+    public static PgnReader open(Path path) throws IOException {
+        return new PgnReader(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    /**
+     * Reads the next game into a game object, which is cleared first
+     * @param game  the game to fill
+     * @return      Returns false if there are no more games
+     * @throws IOException if the channel cannot be read
+     */
+    public boolean nextGame(PgnGame game) throws IOException {
+        game.clear();
+        boolean seenTags = false;
+        boolean inMoves = false;
+        int c;
+        while ((c = read()) != END) {
+            if (isSpace(c)) {
+                continue;
+            }
+            switch (c) {
+                case '[':
+                    if (inMoves) {
+                        // the next game starts without this one having a result
+                        pushedBack = c;
+                        return true;
+                    }
+                    readTag(game);
+                    seenTags = true;
+                    break;
+                case '{':
+                    skipUntil('}');
+                    break;
+                case ';':
+                case '%':
+                    skipUntil('\n');
+                    break;
+                case '(':
+                    skipVariation();
+                    break;
+                case ')':
+                case '}':
+                case ']':
+                    break;
+                case '$':
+                    readToken(c);
+                    break;
+                default:
+                    if (!inMoves) {
+                        startGame(game);
+                        inMoves = true;
+                    }
+                    readToken(c);
+                    if (isResult(token)) {
+                        game.setResult(token.toString());
+                        return true;
+                    }
+                    playMove(game);
+                    break;
+            }
+        }
+        return inMoves || seenTags;
+    }
+
+    /**
+     * Gets the number of bytes read so far
+     * @return  Returns the byte count
+     */
+    public long getBytesRead() {
+        return bytes;
+    }
+
+    /**
+     * Gets the board the last game was replayed on
+     * @return  Returns the board, holding the position the last game ended in. If the game
+     *          had an illegal move, it holds the position before that move.
+     */
+    public ChessBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * Closes the channel
+     * @throws IOException if the channel cannot be closed
+     */
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void startGame(PgnGame game) {
+        String fen = game.getTag("FEN");
+        if (fen == null) {
+            board.initializeBoard();
+            return;
+        }
+        try {
+            board.loadFen(fen);
+        } catch (IllegalArgumentException e) {
+            game.setError(e.getMessage());
+        }
+    }
+
+    private void playMove(PgnGame game) {
+        if (!game.isValid()) {
+            return;
+        }
+        // a move number may be glued to its move, as in 12.Nf3 or 12...Nf3
+        int start = 0;
+        int length = token.length();
+        while (start < length && token.charAt(start) >= '0' && token.charAt(start) <= '9') {
+            start++;
+        }
+        if (start < length && token.charAt(start) == '.') {
+            while (start < length && token.charAt(start) == '.') {
+                start++;
+            }
+        } else {
+            start = 0;
+        }
+        if (start == length) {
+            return;
+        }
+        int move = board.parseSan(token, start, length);
+        if (move == Move.NONE || !board.movePiece(move)) {
+            game.setError("illegal move " + token.subSequence(start, length) + " at ply " + (game.getMoveCount() + 1));
+            return;
+        }
+        board.nextPlayer();
+        game.addMove(move);
+    }
+
+    private void readTag(PgnGame game) throws IOException {
+        int c = skipSpaces();
+        token.setLength(0);
+        while (c != END && !isSpace(c) && c != '"' && c != ']') {
+            append(c);
+            c = read();
+        }
+        String name = token.toString();
+        while (c != END && c != '"' && c != ']') {
+            c = read();
+        }
+        int length = 0;
+        if (c == '"') {
+            while ((c = read()) != END && c != '"') {
+                if (c == '\\') {
+                    c = read();
+                    if (c == END) {
+                        break;
+                    }
+                }
+                if (length < MAX_TOKEN) {
+                    value[length++] = (byte) c;
+                }
+            }
+            skipUntil(']');
+        }
+        game.setTag(name, new String(value, 0, length, StandardCharsets.UTF_8));
+    }
+
+    private void readToken(int first) throws IOException {
+        token.setLength(0);
+        append(first);
+        int c;
+        while ((c = read()) != END) {
+            if (isSpace(c) || c == '{' || c == '}' || c == '(' || c == ')' || c == '[' || c == ']' || c == ';') {
+                pushedBack = c;
+                return;
+            }
+            append(c);
+        }
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 1;
+        int c;
+        while (depth > 0 && (c = read()) != END) {
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '{') {
+                skipUntil('}');
+            } else if (c == ';') {
+                skipUntil('\n');
+            }
+        }
+    }
+
+    private void skipUntil(int end) throws IOException {
+        int c;
+        while ((c = read()) != END && c != end) {
+            // skip
+        }
+    }
+
+    private int skipSpaces() throws IOException {
+        int c;
+        while ((c = read()) != END && isSpace(c)) {
+            // skip
+        }
+        return c;
+    }
+
+    private void append(int c) {
+        if (token.length() < MAX_TOKEN) {
+            token.append((char) c);
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != END) {
+            int c = pushedBack;
+            pushedBack = END;
+            return c;
+        }
+        if (!buffer.hasRemaining()) {
+            if (endOfInput) {
+                return END;
+            }
+            buffer.clear();
+            int n;
+            do {
+                n = channel.read(buffer);
+            } while (n == 0);
+            buffer.flip();
+            if (n < 0) {
+                endOfInput = true;
+                return END;
+            }
+            bytes += n;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    private static boolean isSpace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f';
+    }
+
+    private static boolean isResult(CharSequence s) {
+        return equals(s, PgnGame.WHITE_WINS) || equals(s, PgnGame.BLACK_WINS)
+                || equals(s, PgnGame.DRAW) || equals(s, PgnGame.UNKNOWN);
+    }
+
+    private static boolean equals(CharSequence a, String b) {
+        if (a.length() != b.length()) {
+            return false;
+        }
+        for (int i = 0; i < b.length(); i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static void main(String[] args) throws IOException {
+        long games = 0;
+        long invalid = 0;
+        long plies = 0;
+        long bytes = 0;
+        long start = System.nanoTime();
+        PgnGame game = new PgnGame();
+        for (String file : args) {
+            try (PgnReader reader = PgnReader.open(Paths.get(file))) {
+                while (reader.nextGame(game)) {
+                    games++;
+                    plies += game.getMoveCount();
+                    if (!game.isValid()) {
+                        if (invalid++ < 10) {
+                            System.out.println(file + " game " + games + ": " + game.getError());
+                        }
+                    }
+                }
+                bytes += reader.getBytesRead();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        double seconds = elapsed / 1e9;
+        System.out.printf("%d games (%d invalid), %d plies, %.1f MB in %.2f s%n", games, invalid, plies, bytes / 1e6, seconds);
+        System.out.printf("%.0f games/sec, %.0f plies/sec, %.1f MB/s%n", games / seconds, plies / seconds, bytes / 1e6 / seconds);
+    }
+}
@@ -0,0 +1,140 @@
+package Pgn;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import Board.*;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Writes games in PGN. The seven standard tags come first, then any others, then the moves
+ * in SAN with move numbers, wrapped at 80 columns, then the result.
+ */
+
+public class PgnWriter implements Closeable, Flushable {
+
+    /** The tags every PGN game has, in the order they are written */
+    static final String[] SEVEN_TAG_ROSTER = { "Event", "Site", "Date", "Round", "White", "Black", "Result" };
+
+    private static final int LINE_LENGTH = 80;
+
+    private final Writer out;
+    private final Position position = new Position();
+    private final MoveList moves = new MoveList();
+    private final StringBuilder line = new StringBuilder(LINE_LENGTH + 16);
+    private final StringBuilder san = new StringBuilder(16);
+
+    /**
+     * Creates a writer
+     * @param out   where the games are written
+     */
+    public PgnWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Opens a PGN file for adding games to the end of it, creating it if needed
+     * @param path  the file to write to
+     * @return      Returns a writer that appends to the file
+     * @throws IOException if the file cannot be opened
+     */
+    public static PgnWriter append(Path path) throws IOException {
+        return new PgnWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+    }
+
+    /**
+     * Writes one game, followed by a blank line
+     * @param game  the game to write. Its moves must be legal from its starting position
+     * @throws IOException if the game cannot be written
+     */
+    public void write(PgnGame game) throws IOException {
+        Map<String, String> tags = game.getTags();
+        for (String name : SEVEN_TAG_ROSTER) {
+            String value = "Result".equals(name) ? game.getResult() : tags.get(name);
+            writeTag(name, value != null ? value : "?");
+        }
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            if (!isRosterTag(tag.getKey())) {
+                writeTag(tag.getKey(), tag.getValue());
+            }
+        }
+        out.write('\n');
+
+        String fen = game.getTag("FEN");
+        Fen.parse(fen != null ? fen : Fen.START, position);
+        line.setLength(0);
+        for (int i = 0; i < game.getMoveCount(); i++) {
+            int move = game.getMove(i);
+            san.setLength(0);
+            if (position.getSideToMove() == Position.WHITE) {
+                san.append(position.getFullmoveNumber()).append(". ");
+            } else if (i == 0) {
+                san.append(position.getFullmoveNumber()).append("... ");
+            }
+            San.append(san, move, position, moves);
+            position.makeMove(move);
+            addWord(san);
+        }
+        san.setLength(0);
+        san.append(game.getResult());
+        addWord(san);
+        out.append(line).append("\n\n");
+    }
+
+    /**
+     * Flushes the underlying writer
+     * @throws IOException if the writer cannot be flushed
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Closes the underlying writer
+     * @throws IOException if the writer cannot be closed
+     */
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        out.append('[').append(name).append(" \"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\');
+            }
+            out.append(c);
+        }
+        out.append("\"]\n");
+    }
+
+    private void addWord(CharSequence word) throws IOException {
+        if (line.length() > 0 && line.length() + 1 + word.length() > LINE_LENGTH) {
+            out.append(line).append('\n');
+            line.setLength(0);
+        }
+        if (line.length() > 0) {
+            line.append(' ');
+        }
+        line.append(word);
+    }
+
+    private static boolean isRosterTag(String name) {
+        for (String tag : SEVEN_TAG_ROSTER) {
+            if (tag.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,159 @@
+package Server;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Sends the moves of games to their spectators. Moves are not pushed as they are played:
+ * each game publishes them to its MoveFeed, and flush(), called once per flush interval,
+ * hands every subscriber all the events it has not had yet as one batch. So however fast a
+ * game is played, a spectator gets at most one write per game per interval, and the
+ * subscribers of a game that are equally far along share one batch and its text.
+ *
+ * Nothing is queued per subscriber, only its place in the feed. A subscriber that does not
+ * take a batch keeps its place and is offered everything since at the next flush; one that
+ * falls a whole feed behind, and every new subscriber, is sent a resync with the position
+ * instead. A slow spectator therefore costs neither memory nor the players any time.
+ *
+ * A broadcaster is used by one thread, such as an event loop of NioGameServer, which
+ * subscribes, unsubscribes and flushes; the games may be played on any thread.
+ */
+
+public class Broadcaster {
+    private final Map<GameSession, Group> groups = new HashMap<>();
+    private final MoveBatch batch = new MoveBatch();
+    private int subscribers;
+
+    /**
+     * One subscriber's place in one game
+     */
+    public static final class Subscription {
+        private final Group group;
+        private final Subscriber subscriber;
+        // the number of the next event to send, or -1 before the first resync
+        private long next = -1;
+        private int index;
+
+        private Subscription(Group group, Subscriber subscriber) {
+            this.group = group;
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * Gets the game
+         * @return  Returns the session being watched
+         */
+        public GameSession getSession() {
+            return group.session;
+        }
+    }
+
+    /**
+     * The subscribers of one game
+     */
+    private static final class Group {
+        final GameSession session;
+        Subscription[] subscriptions = new Subscription[4];
+        int size;
+        // the head of the feed when every subscriber last had everything, or -1
+        long caughtUp = -1;
+
+        Group(GameSession session) {
+            this.session = session;
+        }
+    }
+
+    /**
+     * Starts sending a game to a subscriber. Its first batch, at the next flush, is a resync
+     * with the current position.
+     * @param session       the game to watch
+     * @param subscriber    who receives its moves
+     * @return              Returns the subscription, which unsubscribe takes
+     */
+    public Subscription subscribe(GameSession session, Subscriber subscriber) {
+        Group group = groups.computeIfAbsent(session, Group::new);
+        Subscription subscription = new Subscription(group, subscriber);
+        if (group.size == group.subscriptions.length) {
+            Subscription[] larger = new Subscription[group.size * 2];
+            System.arraycopy(group.subscriptions, 0, larger, 0, group.size);
+            group.subscriptions = larger;
+        }
+        subscription.index = group.size;
+        group.subscriptions[group.size++] = subscription;
+        group.caughtUp = -1;
+        subscribers++;
+        return subscription;
+    }
+
+    /**
+     * Stops sending a game to a subscriber
+     * @param subscription  what subscribe returned
+     */
+    public void unsubscribe(Subscription subscription) {
+        Group group = subscription.group;
+        int index = subscription.index;
+        if (index < 0 || groups.get(group.session) != group) {
+            return;
+        }
+        // the last subscription takes its place
+        Subscription last = group.subscriptions[--group.size];
+        group.subscriptions[index] = last;
+        last.index = index;
+        group.subscriptions[group.size] = null;
+        subscription.index = -1;
+        subscribers--;
+        if (group.size == 0) {
+            groups.remove(group.session);
+        }
+    }
+
+    /**
+     * Hands every subscriber the events it has not had yet
+     * @return  Returns the number of batches taken
+     */
+    public int flush() {
+        int delivered = 0;
+        for (Group group : groups.values()) {
+            long head = group.session.getFeed().head();
+            if (group.caughtUp == head) {
+                continue;
+            }
+            boolean caughtUp = true;
+            // the place the batch was filled from; subscribers usually share it
+            long filledFrom = -2;
+            for (int i = 0; i < group.size; i++) {
+                Subscription subscription = group.subscriptions[i];
+                if (subscription.next >= head) {
+                    continue;
+                }
+                if (subscription.next != filledFrom) {
+                    if (subscription.next < 0 || !batch.fill(group.session, subscription.next)) {
+                        group.session.snapshot(batch);
+                    }
+                    filledFrom = subscription.next;
+                }
+                if (subscription.subscriber.deliver(batch)) {
+                    subscription.next = batch.getFirst() + batch.size();
+                    delivered++;
+                }
+                if (subscription.next < head) {
+                    caughtUp = false;
+                }
+            }
+            if (caughtUp) {
+                group.caughtUp = head;
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * Gets the number of subscriptions
+     * @return  Returns the count over all games
+     */
+    public int size() {
+        return subscribers;
+    }
+}
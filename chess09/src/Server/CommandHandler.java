@@ -0,0 +1,161 @@
+package Server;
+
+import Board.*;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * The text protocol of the game server. Each command is one line, and each reply is one
+ * line that starts with "ok" or "error", except for board, whose reply is the board
+ * followed by an "ok" line.
+ *
+ *   new [fen]                          starts a game               ok id status
+ *   move id e2 e4 [Q|R|B|N] [draw?]    plays a move as Chess.main  ok san status
+ *   move id Nf3 [draw?]                plays a move in SAN         ok san status
+ *   draw id                            accepts a draw offer        ok status
+ *   resign id                          resigns for the side to move  ok status
+ *   status id                          the state of the game       ok status
+ *   fen id                             the position                ok fen
+ *   board id                           the board as Chess.main prints it
+ *   diff id                            the squares the last move changed  ok e2=- e4=wP
+ *   end id                             ends the session            ok
+ *   quit                               closes the connection       ok
+ *
+ * The status is "white to move" or "black to move", followed by "check" and "draw-offered"
+ * when they apply, or "over", the result and how the game ended, such as
+ * "over 1-0 checkmate".
+ */
+
+public class CommandHandler {
+    private final SessionRegistry sessions;
+
+    /**
+     * Creates a handler for the games of a registry
+     * @param sessions  the games
+     */
+    public CommandHandler(SessionRegistry sessions) {
+        this.sessions = sessions;
+    }
+
+    /**
+     * Runs one command
+     * @param line      the command line
+     * @param reply     the builder the reply is appended to, ending with a line break
+     * @return          Returns false if the client asked to close the connection
+     */
+    public boolean handle(String line, StringBuilder reply) {
+        String[] tokens = line.trim().split("\\s+");
+        String command = tokens[0].toLowerCase();
+        try {
+            switch (command) {
+                case "new": {
+                    GameSession session = sessions.create(tokens.length > 1 ? line.trim().substring(3).trim() : null);
+                    ok(reply, session.getId() + " " + session.status());
+                    break;
+                }
+                case "move": {
+                    GameSession session = session(tokens);
+                    ok(reply, move(session, tokens) + " " + session.status());
+                    break;
+                }
+                case "draw": {
+                    GameSession session = session(tokens);
+                    session.acceptDraw();
+                    ok(reply, session.status());
+                    break;
+                }
+                case "resign": {
+                    GameSession session = session(tokens);
+                    session.resign();
+                    ok(reply, session.status());
+                    break;
+                }
+                case "status":
+                    ok(reply, session(tokens).status());
+                    break;
+                case "fen":
+                    ok(reply, session(tokens).fen());
+                    break;
+                case "board":
+                    session(tokens).appendBoard(reply);
+                    reply.append('\n');
+                    ok(reply, null);
+                    break;
+                case "diff": {
+                    GameSession session = session(tokens);
+                    reply.append("ok ");
+                    session.appendDiff(reply);
+                    reply.append('\n');
+                    break;
+                }
+                case "end":
+                    if (tokens.length < 2 || !sessions.remove(tokens[1])) {
+                        throw new IllegalArgumentException("no such game");
+                    }
+                    ok(reply, null);
+                    break;
+                case "quit":
+                    ok(reply, null);
+                    return false;
+                default:
+                    throw new IllegalArgumentException("unknown command " + tokens[0]);
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            reply.append("error ").append(e.getMessage()).append('\n');
+        }
+        return true;
+    }
+
+    private GameSession session(String[] tokens) {
+        if (tokens.length < 2) {
+            throw new IllegalArgumentException("missing game id");
+        }
+        GameSession session = sessions.get(tokens[1]);
+        if (session == null) {
+            throw new IllegalArgumentException("no such game " + tokens[1]);
+        }
+        return session;
+    }
+
+    /**
+     * Plays the move of a move command
+     * @param session   the game
+     * @param tokens    the command, its game ID and the move
+     * @return          Returns the move in SAN
+     */
+    private static String move(GameSession session, String[] tokens) {
+        int count = tokens.length;
+        boolean offerDraw = count > 3 && tokens[count - 1].equalsIgnoreCase("draw?");
+        if (offerDraw) {
+            count--;
+        }
+        if (count == 3) {
+            return session.move(tokens[2], offerDraw);
+        }
+        if (count < 4 || count > 5 || !isSquare(tokens[2]) || !isSquare(tokens[3])) {
+            throw new IllegalArgumentException("expected move id from to [promotion] [draw?]");
+        }
+        int promotion = 0;
+        if (count == 5) {
+            promotion = "PNBRQ".indexOf(Character.toUpperCase(tokens[4].charAt(0)));
+            if (tokens[4].length() != 1 || promotion <= Position.PAWN) {
+                throw new IllegalArgumentException("unknown promotion piece " + tokens[4]);
+            }
+        }
+        return session.move(tokens[2].charAt(1) - '1', tokens[2].charAt(0) - 'a',
+                tokens[3].charAt(1) - '1', tokens[3].charAt(0) - 'a', promotion, offerDraw);
+    }
+
+    private static boolean isSquare(String token) {
+        return token.length() == 2 && token.charAt(0) >= 'a' && token.charAt(0) <= 'h'
+                && token.charAt(1) >= '1' && token.charAt(1) <= '8';
+    }
+
+    private static void ok(StringBuilder reply, String text) {
+        reply.append("ok");
+        if (text != null) {
+            reply.append(' ').append(text);
+        }
+        reply.append('\n');
+    }
+}
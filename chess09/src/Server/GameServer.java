@@ -0,0 +1,176 @@
+package Server;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Hosts many games at once over a local socket, TCP on the loopback address or a Unix
+ * domain socket. Every connection gets a thread of its own that reads a command, runs it
+ * and writes the reply; on Java 21 and later these are virtual threads, so tens of
+ * thousands of connections cost little more than their buffers and boards. On older Java
+ * they are ordinary threads. A connection can play any number of games and a game can be
+ * played from any number of connections; see CommandHandler for the protocol.
+ *
+ * Usage:
+ *   java Server.GameServer [port]              listens on the loopback address (port 5000 by default)
+ *   java Server.GameServer path.sock           listens on a Unix domain socket
+ *   -Didle=600 -Dsessions=100000               evicts games unused for 600 seconds and hosts at most 100000
+ */
+
+public class GameServer implements AutoCloseable {
+
+    // connections the operating system holds for accepting, so a burst of connects is not dropped
+    static final int BACKLOG = 1024;
+
+    private final ServerSocketChannel server;
+    private final SocketAddress address;
+    private final CommandHandler handler;
+    private final ExecutorService connections;
+    private final ScheduledExecutorService evictor;
+    private final boolean virtualThreads;
+
+    /**
+     * Starts listening. Connections are accepted once run() is called.
+     * @param address           the address to listen on, an InetSocketAddress or a UnixDomainSocketAddress
+     * @param sessions          the games to host
+     * @param idleSeconds       how long a game may go unused before it is evicted
+     * @throws IOException if the address cannot be bound
+     */
+    public GameServer(SocketAddress address, SessionRegistry sessions, long idleSeconds) throws IOException {
+        this.address = address;
+        server = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        server.bind(address, BACKLOG);
+        handler = new CommandHandler(sessions);
+        ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+        virtualThreads = virtual != null;
+        connections = virtualThreads ? virtual : Executors.newCachedThreadPool();
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "session-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1L, idleSeconds / 4);
+        long idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+        evictor.scheduleAtFixedRate(() -> sessions.evictIdle(idleNanos), period, period, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Accepts connections until the server is closed, giving each one its own thread
+     * @throws IOException if accepting fails for a reason other than the server closing
+     */
+    public void run() throws IOException {
+        try {
+            while (true) {
+                SocketChannel channel = server.accept();
+                connections.execute(() -> serve(channel));
+            }
+        } catch (ClosedChannelException e) {
+            // closed by close()
+        }
+    }
+
+    /**
+     * Checks if connections run on virtual threads
+     * @return  Returns true on Java 21 and later
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Stops accepting connections, closes the ones that are open and stops evicting
+     * @throws IOException if the listening socket cannot be closed
+     */
+    public void close() throws IOException {
+        server.close();
+        evictor.shutdownNow();
+        connections.shutdownNow();
+        if (address instanceof UnixDomainSocketAddress) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+        }
+    }
+
+    private void serve(SocketChannel channel) {
+        StringBuilder reply = new StringBuilder(256);
+        try (LineChannel lines = new LineChannel(channel)) {
+            String line;
+            boolean open = true;
+            while (open && (line = lines.readLine()) != null) {
+                reply.setLength(0);
+                if (lines.isTooLong()) {
+                    reply.append("error line too long\n");
+                } else {
+                    open = handler.handle(line, reply);
+                }
+                lines.write(reply);
+            }
+        } catch (IOException e) {
+            // the client went away; its games stay until they are evicted
+        }
+    }
+
+    /**
+     * Creates an executor that starts a virtual thread per task. It is looked up by name so
+     * the server still builds and runs on Java 17, where there are no virtual threads.
+     * @return  Returns the executor, or null if this Java has no virtual threads
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the address to listen on from the command line
+     * @param where     a port number for TCP on the loopback address, or the path of a Unix domain socket
+     * @return          Returns the socket address
+     */
+    static SocketAddress address(String where) {
+        if (!where.isEmpty() && where.chars().allMatch(Character::isDigit)) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(where));
+        }
+        return UnixDomainSocketAddress.of(where);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String where = args.length > 0 ? args[0] : "5000";
+        SocketAddress address = address(where);
+        SessionRegistry sessions = new SessionRegistry(Integer.getInteger("sessions", 100000));
+        GameServer server = new GameServer(address, sessions, Long.getLong("idle", 600L));
+        // stopping the JVM closes the server, which also removes a Unix domain socket file
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                // exiting anyway
+            }
+        }));
+        System.out.println("Listening on " + where + (server.usesVirtualThreads()
+                ? " with a virtual thread per connection" : " with a thread per connection"));
+        try {
+            server.run();
+        } finally {
+            server.close();
+        }
+    }
+}
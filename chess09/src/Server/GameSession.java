@@ -0,0 +1,368 @@
+package Server;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import Board.*;
+import Controller.PieceColor;
+import Pgn.PgnGame;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * One game hosted by the server. The game follows the rules of Chess.main: it is over as
+ * soon as a player is mated or stalemated or a draw rule applies, a draw is offered along
+ * with a move and the opponent can then only accept it, and either player can resign.
+ * Several connections may play the same game, so every call takes the session's lock; it
+ * is a ReentrantLock rather than a monitor so that a virtual thread waiting for it does
+ * not hold on to its carrier thread. The board text is kept by a BoardRenderer and redrawn
+ * only where a move changed it, so showing the board to many clients costs a copy. Every
+ * move, and the end of the game, is published to the session's MoveFeed for spectators.
+ */
+
+public class GameSession {
+    private final String id;
+    private final ChessBoard board = new ChessBoard();
+    private final BoardRenderer renderer = new BoardRenderer();
+    private final MoveFeed feed = new MoveFeed();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile long lastUsed;
+    private boolean mustDraw;
+    private String result;
+    private String reason;
+
+    /**
+     * Creates a game
+     * @param id    the session ID
+     * @param fen   the FEN record of the starting position, or null for the standard one
+     * @throws IllegalArgumentException if the FEN record is invalid
+     */
+    GameSession(String id, String fen) {
+        this.id = id;
+        if (fen != null) {
+            board.loadFen(fen);
+        }
+        board.render(renderer);
+        touch();
+        checkGameOver();
+    }
+
+    /**
+     * Gets the session ID
+     * @return  Returns the ID clients use to name the game
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets when the game was last used
+     * @return  Returns the System.nanoTime() of the last command on the game
+     */
+    public long getLastUsed() {
+        return lastUsed;
+    }
+
+    /**
+     * Marks the game as used now
+     */
+    void touch() {
+        lastUsed = System.nanoTime();
+    }
+
+    /**
+     * Plays a move given by its squares, as Chess.main reads it
+     * @param fromRow       the row of the piece to move
+     * @param fromCol       the column of the piece to move
+     * @param toRow         the row to move to
+     * @param toCol         the column to move to
+     * @param promotion     the piece type a pawn promotes to, or 0 for a queen
+     * @param offerDraw     true if the player offers a draw with the move
+     * @return              Returns the move in SAN
+     * @throws IllegalArgumentException if the move is illegal
+     * @throws IllegalStateException if the game is over
+     */
+    public String move(int fromRow, int fromCol, int toRow, int toCol, int promotion, boolean offerDraw) {
+        lock.lock();
+        try {
+            checkPlayable();
+            return play(board.findMove(fromRow, fromCol, toRow, toCol, promotion), offerDraw);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Plays a move given in Standard Algebraic Notation
+     * @param san           the move, such as Nf3 or e8=Q
+     * @param offerDraw     true if the player offers a draw with the move
+     * @return              Returns the move in SAN, with its check suffix
+     * @throws IllegalArgumentException if the move is illegal or ambiguous
+     * @throws IllegalStateException if the game is over
+     */
+    public String move(String san, boolean offerDraw) {
+        lock.lock();
+        try {
+            checkPlayable();
+            return play(board.parseSan(san, 0, san.length()), offerDraw);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Plays a line of input as Chess.main reads it: a move, possibly offering a draw,
+     * resign or draw
+     * @param parser    the parser to read the line with
+     * @param line      the array holding the line, in ASCII
+     * @param start     the index of the first byte of the line
+     * @param end       the index after the last byte of the line
+     * @return          Returns the move in SAN, or null for resign and draw
+     * @throws IllegalArgumentException if the line is not a legal move, resign or the acceptance of a draw offer
+     * @throws IllegalStateException if the game is over
+     * @see MoveParser
+     */
+    public String play(MoveParser parser, byte[] line, int start, int end) {
+        lock.lock();
+        try {
+            checkNotOver();
+            int parsed = board.parseMove(parser, line, start, end);
+            switch (parsed) {
+                case MoveParser.RESIGN:
+                    resign();
+                    return null;
+                case MoveParser.DRAW:
+                    acceptDraw();
+                    return null;
+                case MoveParser.MOVE:
+                    checkPlayable();
+                    return play(parser.getMove(), parser.offersDraw());
+                default:
+                    throw new IllegalArgumentException(MoveParser.describe(parsed));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Accepts the draw the opponent offered
+     * @throws IllegalArgumentException if no draw was offered
+     * @throws IllegalStateException if the game is over
+     */
+    public void acceptDraw() {
+        lock.lock();
+        try {
+            checkNotOver();
+            if (!board.isDrawOffered(board.getCurrentPlayer())) {
+                throw new IllegalArgumentException("no draw was offered");
+            }
+            end(PgnGame.DRAW, "agreement");
+            feed.publish(MoveFeed.event(Move.NONE, MoveFeed.resultOf(result)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Resigns the game for the player to move
+     * @throws IllegalStateException if the game is over
+     */
+    public void resign() {
+        lock.lock();
+        try {
+            checkNotOver();
+            end(winner(board.getOtherPlayer()), "resignation");
+            feed.publish(MoveFeed.event(Move.NONE, MoveFeed.resultOf(result)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends a game that is left while it goes on: the player to move loses by abandonment,
+     * and the result is published so that spectators see the game end. Does nothing if the
+     * game is already over.
+     */
+    void abandon() {
+        lock.lock();
+        try {
+            if (result == null) {
+                end(winner(board.getOtherPlayer()), "abandonment");
+                feed.publish(MoveFeed.event(Move.NONE, MoveFeed.resultOf(result)));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the position as a FEN record
+     * @return  Returns the FEN text
+     */
+    public String fen() {
+        lock.lock();
+        try {
+            return board.toFen();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the board as Chess.main prints it
+     * @return  Returns the board text, eight rows and the file letters
+     */
+    public String board() {
+        lock.lock();
+        try {
+            return renderer.toString();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends the board as Chess.main prints it
+     * @param sb    the builder to append to
+     */
+    public void appendBoard(StringBuilder sb) {
+        lock.lock();
+        try {
+            renderer.appendTo(sb);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends the squares the last move changed, such as "e2=- e4=wP". Before the first
+     * move it is every square a piece stands on.
+     * @param sb    the builder to append to
+     * @see BoardRenderer#appendDiff(StringBuilder)
+     */
+    public void appendDiff(StringBuilder sb) {
+        lock.lock();
+        try {
+            renderer.appendDiff(sb);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the state of the game in a word or three
+     * @return  Returns "white to move" or "black to move", followed by "check" and
+     *          "draw-offered" when they apply, or "over", the result and how the game ended
+     */
+    public String status() {
+        lock.lock();
+        try {
+            if (result != null) {
+                return "over " + result + " " + reason;
+            }
+            PieceColor player = board.getCurrentPlayer();
+            StringBuilder sb = new StringBuilder(32);
+            sb.append(player == PieceColor.WHITE ? "white" : "black").append(" to move");
+            if (board.isCheck(player)) {
+                sb.append(" check");
+            }
+            if (mustDraw) {
+                sb.append(" draw-offered");
+            }
+            return sb.toString();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the feed the game's moves are published to
+     * @return  Returns the feed
+     */
+    public MoveFeed getFeed() {
+        return feed;
+    }
+
+    /**
+     * Makes a batch a resync: the position, with the number of events published, read
+     * together so that a spectator starting from it neither misses a move nor sees one twice
+     * @param batch     the batch to fill
+     */
+    void snapshot(MoveBatch batch) {
+        lock.lock();
+        try {
+            batch.resync(this, feed.head(), board.toFen(), result);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the result of the game
+     * @return  Returns PgnGame.WHITE_WINS, BLACK_WINS or DRAW, or null while the game goes on
+     */
+    public String getResult() {
+        lock.lock();
+        try {
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String play(int move, boolean offerDraw) {
+        if (move == Move.NONE) {
+            throw new IllegalArgumentException("illegal move");
+        }
+        String san = board.toSan(move);
+        PieceColor player = board.getCurrentPlayer();
+        board.movePiece(move);
+        board.nextPlayer();
+        board.render(renderer);
+        if (offerDraw) {
+            board.setDrawOffered(true, player);
+        }
+        mustDraw = offerDraw;
+        checkGameOver();
+        feed.publish(MoveFeed.event(move, MoveFeed.resultOf(result)));
+        return san;
+    }
+
+    private void checkNotOver() {
+        if (result != null) {
+            throw new IllegalStateException("the game is over");
+        }
+    }
+
+    private void checkPlayable() {
+        checkNotOver();
+        if (mustDraw) {
+            throw new IllegalArgumentException("a draw was offered, the only answer is draw");
+        }
+    }
+
+    private void checkGameOver() {
+        PieceColor player = board.getCurrentPlayer();
+        if (board.isCheckmate(player)) {
+            end(winner(board.getOtherPlayer()), "checkmate");
+        } else if (board.isStalemate(player)) {
+            end(PgnGame.DRAW, "stalemate");
+        } else if (board.isInsufficientMaterial()) {
+            end(PgnGame.DRAW, "insufficient-material");
+        } else if (board.isThreefoldRepetition()) {
+            end(PgnGame.DRAW, "repetition");
+        } else if (board.isFiftyMoveDraw()) {
+            end(PgnGame.DRAW, "fifty-moves");
+        }
+    }
+
+    private void end(String result, String reason) {
+        this.result = result;
+        this.reason = reason;
+        mustDraw = false;
+    }
+
+    private static String winner(PieceColor color) {
+        return color == PieceColor.WHITE ? PgnGame.WHITE_WINS : PgnGame.BLACK_WINS;
+    }
+}
@@ -0,0 +1,108 @@
+package Server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Reads and writes lines of ASCII text on a blocking channel. Each direction has one small
+ * buffer of its own, and the channel is read and written directly rather than through
+ * streams, so a thread blocked reading holds no monitor. A line longer than the limit is
+ * read to its end, but only its start is kept and isTooLong() tells the caller not to use it.
+ */
+
+final class LineChannel implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 10;
+    private static final int MAX_LINE = 1 << 10;
+
+    private final ByteChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final StringBuilder line = new StringBuilder(64);
+    private boolean tooLong;
+
+    /**
+     * Creates a line channel
+     * @param channel   the connected channel, in blocking mode
+     */
+    LineChannel(ByteChannel channel) {
+        this.channel = channel;
+        in.flip();
+    }
+
+    /**
+     * Reads the next line, without its line break
+     * @return      Returns the line, or null if the other side closed the connection
+     * @throws IOException if the channel cannot be read
+     */
+    String readLine() throws IOException {
+        line.setLength(0);
+        tooLong = false;
+        while (true) {
+            while (in.hasRemaining()) {
+                int c = in.get() & 0xFF;
+                if (c == '\n') {
+                    int length = line.length();
+                    if (length > 0 && line.charAt(length - 1) == '\r') {
+                        line.setLength(length - 1);
+                    }
+                    return line.toString();
+                }
+                if (line.length() < MAX_LINE) {
+                    line.append((char) c);
+                } else {
+                    tooLong = true;
+                }
+            }
+            in.clear();
+            int n = channel.read(in);
+            in.flip();
+            if (n < 0) {
+                return line.length() > 0 ? line.toString() : null;
+            }
+        }
+    }
+
+    /**
+     * Checks if the last line read went past the limit
+     * @return  Returns true if the line was cut off, and so must not be run
+     */
+    boolean isTooLong() {
+        return tooLong;
+    }
+
+    /**
+     * Writes text and sends it
+     * @param text      the text, which should end with a line break
+     * @throws IOException if the channel cannot be written
+     */
+    void write(CharSequence text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            if (!out.hasRemaining()) {
+                flush();
+            }
+            char c = text.charAt(i);
+            out.put(c < 0x80 ? (byte) c : (byte) '?');
+        }
+        flush();
+    }
+
+    private void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    /**
+     * Closes the channel
+     * @throws IOException if the channel cannot be closed
+     */
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,158 @@
+package Server;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * The events of one game that a Broadcaster hands to a subscriber in one flush: every event
+ * the subscriber has not had yet, however many moves were played since the last flush. All
+ * the subscribers that are equally far along share one batch, and its text is made once for
+ * all of them. As a line it reads
+ *
+ *   moves id first e2e4 e7e5 ...       the events from number first on, one word each; see MoveFeed.append
+ *   resync id first fen [result]       the position, which the events from number first on
+ *                                      follow, and the result if the game is over. A new
+ *                                      subscriber, or one that fell a whole feed behind, gets this
+ *
+ * A batch belongs to the broadcaster and is reused once deliver returns.
+ */
+
+public final class MoveBatch {
+    private final int[] events = new int[MoveFeed.CAPACITY];
+    private final StringBuilder text = new StringBuilder(64);
+    private GameSession session;
+    private long first;
+    private int size;
+    private String fen;
+    private String result;
+    private byte[] bytes;
+
+    /**
+     * Gets the game
+     * @return  Returns the session the events were published by
+     */
+    public GameSession getSession() {
+        return session;
+    }
+
+    /**
+     * Gets the number of the first event
+     * @return  Returns the event number
+     */
+    public long getFirst() {
+        return first;
+    }
+
+    /**
+     * Gets the number of events
+     * @return  Returns the count, 0 for a resync
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets an event
+     * @param index     the index in the batch, from 0 to size() - 1
+     * @return          Returns the event, to be read with MoveFeed.move and MoveFeed.result
+     */
+    public int getEvent(int index) {
+        return events[index];
+    }
+
+    /**
+     * Checks if the batch is a resync
+     * @return  Returns true if the batch holds the position instead of events
+     */
+    public boolean isResync() {
+        return fen != null;
+    }
+
+    /**
+     * Gets the position of a resync
+     * @return  Returns the FEN record of the position before event getFirst(), or null if
+     *          the batch is not a resync
+     */
+    public String getFen() {
+        return fen;
+    }
+
+    /**
+     * Gets the result given with a resync
+     * @return  Returns PgnGame.WHITE_WINS, BLACK_WINS or DRAW if the batch is a resync of a
+     *          game that is over, otherwise null
+     */
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * Gets the batch as a line of ASCII text
+     * @return  Returns the line, ending with a line break. It is made on the first call and
+     *          may be kept.
+     */
+    public byte[] getBytes() {
+        if (bytes == null) {
+            text.setLength(0);
+            appendTo(text);
+            text.append('\n');
+            bytes = text.toString().getBytes(StandardCharsets.US_ASCII);
+        }
+        return bytes;
+    }
+
+    /**
+     * Appends the batch as text, without a line break
+     * @param sb    the builder to append to
+     */
+    public void appendTo(StringBuilder sb) {
+        sb.append(fen != null ? "resync " : "moves ").append(session.getId()).append(' ').append(first);
+        if (fen != null) {
+            sb.append(' ').append(fen);
+        }
+        if (result != null) {
+            sb.append(' ').append(result);
+        }
+        for (int i = 0; i < size; i++) {
+            sb.append(' ');
+            MoveFeed.append(sb, events[i]);
+        }
+    }
+
+    /**
+     * Fills the batch with the events of a feed from one number up to its head
+     * @param session   the game
+     * @param from      the number of the first event
+     * @return          Returns false if the events were already overwritten
+     */
+    boolean fill(GameSession session, long from) {
+        int count = session.getFeed().read(from, events, 0, events.length);
+        if (count < 0) {
+            return false;
+        }
+        set(session, from, count, null);
+        return true;
+    }
+
+    /**
+     * Makes the batch a resync
+     * @param session   the game
+     * @param head      the number of events published when the position was read
+     * @param fen       the position
+     * @param result    the result if the game is over, or null
+     */
+    void resync(GameSession session, long head, String fen, String result) {
+        set(session, head, 0, fen);
+        this.result = result;
+    }
+
+    private void set(GameSession session, long first, int size, String fen) {
+        this.session = session;
+        this.first = first;
+        this.size = size;
+        this.fen = fen;
+        result = null;
+        bytes = null;
+    }
+}
@@ -0,0 +1,146 @@
+package Server;
+
+import java.lang.invoke.VarHandle;
+
+import Board.*;
+import Pgn.PgnGame;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * The moves of one game as a stream of events, for spectators. An event is an int: the
+ * compact move (Move.compact) in bits 0-14, or 0 when the game ended without a move, and
+ * the result in bits 15-16 when the event ends the game. Events are numbered from 0 in the
+ * order they are published.
+ *
+ * The last CAPACITY events are kept in a ring, and readers keep their own place in it, so
+ * a game costs the same however many spectators it has and a slow spectator cannot make it
+ * keep more. A reader that falls a whole ring behind is told so and starts again from the
+ * position. The game's session publishes under its lock; readers on any thread need no lock.
+ */
+
+public final class MoveFeed {
+
+    /** Result of an event that does not end the game */
+    public static final int NO_RESULT = 0;
+    /** Result of an event that ends the game in a win for white */
+    public static final int WHITE_WINS = 1;
+    /** Result of an event that ends the game in a win for black */
+    public static final int BLACK_WINS = 2;
+    /** Result of an event that ends the game in a draw */
+    public static final int DRAW = 3;
+
+    /** The number of events kept; a power of two */
+    public static final int CAPACITY = 256;
+
+    private static final int RESULT_SHIFT = 15;
+    private static final int MOVE_MASK = (1 << RESULT_SHIFT) - 1;
+    private static final String[] RESULTS = { null, PgnGame.WHITE_WINS, PgnGame.BLACK_WINS, PgnGame.DRAW };
+
+    private final int[] events = new int[CAPACITY];
+    // the number of events published; written only by the publisher
+    private volatile long head;
+
+    /**
+     * Makes an event
+     * @param move      the packed move, or Move.NONE
+     * @param result    NO_RESULT, WHITE_WINS, BLACK_WINS or DRAW
+     * @return          Returns the event
+     */
+    public static int event(int move, int result) {
+        return Move.compact(move) | result << RESULT_SHIFT;
+    }
+
+    /**
+     * Gets the move of an event
+     * @param event     the event
+     * @return          Returns the move without its flags, or Move.NONE if the game ended without one
+     */
+    public static int move(int event) {
+        return event & MOVE_MASK;
+    }
+
+    /**
+     * Gets the result of an event
+     * @param event     the event
+     * @return          Returns NO_RESULT, WHITE_WINS, BLACK_WINS or DRAW
+     */
+    public static int result(int event) {
+        return event >>> RESULT_SHIFT;
+    }
+
+    /**
+     * Gets the result code of a PGN result
+     * @param result    PgnGame.WHITE_WINS, BLACK_WINS or DRAW, or null
+     * @return          Returns WHITE_WINS, BLACK_WINS or DRAW, or NO_RESULT for null
+     */
+    static int resultOf(String result) {
+        for (int i = 1; i < RESULTS.length; i++) {
+            if (RESULTS[i].equals(result)) {
+                return i;
+            }
+        }
+        return NO_RESULT;
+    }
+
+    /**
+     * Appends an event as one word: the move in coordinate notation, such as e2e4, joined to
+     * the result by a slash if the move ends the game, as in d8h4/0-1, or the result alone if
+     * the game ended without a move
+     * @param sb        the builder to append to
+     * @param event     the event
+     */
+    public static void append(StringBuilder sb, int event) {
+        int move = move(event);
+        if (move != Move.NONE) {
+            Move.appendCoordinate(sb, move);
+        }
+        if (result(event) != NO_RESULT) {
+            if (move != Move.NONE) {
+                sb.append('/');
+            }
+            sb.append(RESULTS[result(event)]);
+        }
+    }
+
+    /**
+     * Adds an event. Only one thread may publish at a time.
+     * @param event     the event
+     */
+    void publish(int event) {
+        long next = head;
+        events[(int) next & (CAPACITY - 1)] = event;
+        // the volatile write makes the event visible before the new head
+        head = next + 1;
+    }
+
+    /**
+     * Gets the number of events published
+     * @return  Returns the number of the next event
+     */
+    public long head() {
+        return head;
+    }
+
+    /**
+     * Copies events out of the ring
+     * @param from      the number of the first event to copy
+     * @param dst       the array to copy into
+     * @param offset    the index in dst of the first event
+     * @param max       the most events to copy
+     * @return          Returns the number of events copied, up to the head, or -1 if the
+     *                  event from was already overwritten
+     */
+    public int read(long from, int[] dst, int offset, int max) {
+        long end = Math.min(head, from + max);
+        int count = (int) Math.max(0L, end - from);
+        for (int i = 0; i < count; i++) {
+            dst[offset + i] = events[(int) (from + i) & (CAPACITY - 1)];
+        }
+        // the publisher may have written over the oldest of them while they were copied:
+        // event n is overwritten while the head is n + CAPACITY. As in StampedLock.validate,
+        // the fence keeps the plain loads above from being reordered after the read of head.
+        VarHandle.acquireFence();
+        return from + CAPACITY > head ? count : -1;
+    }
+}
@@ -0,0 +1,642 @@
+package Server;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import Board.MoveParser;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * A lighter front end than GameServer. A few event loop threads, each with its own
+ * selector, serve all the connections, so an idle connection costs a game and a few
+ * objects but no thread. Each connection plays one game and speaks what Chess.main reads,
+ * one command per line:
+ *
+ *   e2 e4                  plays a move                    ok san status
+ *   e7 e8 N                plays a move promoting to a knight (Q, R, B or N)
+ *   e2 e4 draw?            plays a move and offers a draw
+ *   Nf3, e2e4              the other move forms MoveParser reads
+ *   draw                   accepts a draw offer            ok status
+ *   resign                 resigns for the side to move    ok status
+ *   status                 the state of the game           ok status
+ *   fen                    the position                    ok fen
+ *   board                  the board as Chess.main prints it, then ok
+ *   diff                   the squares the last move changed  ok e2=- e4=wP
+ *   new                    starts a new game               ok id status
+ *   watch id               ends the connection's game and watches game id  ok
+ *   unwatch                stops watching                  ok
+ *   quit                   closes the connection           ok
+ *
+ * A connection watching a game is sent its moves as MoveBatch lines, "resync id n fen" and
+ * then "moves id n e2e4 e7e5 ...", at most one line per flush interval however fast the game
+ * is played. A spectator whose socket is still full when the next flush comes is skipped and
+ * later sent everything it missed in one line; see Broadcaster. A game whose connection
+ * closes, or moves on to a new game or to watching, is lost by the player to move, by
+ * abandonment, and its spectators are sent that result like a resignation.
+ *
+ * Errors are answered with a line starting with "error", a line longer than 256 bytes is
+ * answered with "error line too long" and not run, and blank lines are ignored. The
+ * replies, including the status, are the same as GameServer's. On connecting, the client is
+ * sent "ok id status" for its first game.
+ *
+ * Lines are parsed straight from the bytes read, moves by a MoveParser: every loop has one direct buffer for
+ * reading and one for writing, shared by all its connections, and a connection only keeps
+ * the part of a line that has not ended yet. A reply the socket cannot take at once is kept
+ * for the connection, which is not read again until the reply has gone out.
+ *
+ * Usage:
+ *   java Server.NioGameServer [port]           listens on the loopback address (port 5001 by default)
+ *   java Server.NioGameServer path.sock        listens on a Unix domain socket
+ *   -Dthreads=2 -Dsessions=100000              uses 2 event loops (one per core by default) and hosts at most 100000 games
+ *   -Dflush=50                                 sends spectators the moves every 50 milliseconds (the default)
+ */
+
+public class NioGameServer implements AutoCloseable {
+    private static final int READ_BUFFER_SIZE = 1 << 12;
+    private static final int WRITE_BUFFER_SIZE = 1 << 12;
+    // longest line read; anything longer is answered with an error
+    private static final int MAX_LINE = 256;
+    // how long accepting stops after it failed, such as for want of file descriptors
+    private static final long ACCEPT_RETRY_NANOS = 100_000_000L;
+    /** The default time between two batches to spectators, in milliseconds */
+    public static final int FLUSH_MILLIS = 50;
+
+    private final ServerSocketChannel server;
+    private final SocketAddress address;
+    private final SessionRegistry sessions;
+    private final EventLoop[] loops;
+    private final Thread[] threads;
+    private final long flushNanos;
+    private volatile boolean closed;
+
+    /**
+     * Starts listening and starts the event loops
+     * @param address   the address to listen on, an InetSocketAddress or a UnixDomainSocketAddress
+     * @param sessions  the registry the games are kept in while their connections are open
+     * @param threads   the number of event loops
+     * @throws IOException if the address cannot be bound
+     */
+    public NioGameServer(SocketAddress address, SessionRegistry sessions, int threads) throws IOException {
+        this(address, sessions, threads, FLUSH_MILLIS);
+    }
+
+    /**
+     * Starts listening and starts the event loops
+     * @param address       the address to listen on, an InetSocketAddress or a UnixDomainSocketAddress
+     * @param sessions      the registry the games are kept in while their connections are open
+     * @param threads       the number of event loops
+     * @param flushMillis   the time between two batches of moves to spectators, in milliseconds
+     * @throws IOException if the address cannot be bound
+     */
+    public NioGameServer(SocketAddress address, SessionRegistry sessions, int threads, int flushMillis) throws IOException {
+        this.address = address;
+        this.sessions = sessions;
+        flushNanos = Math.max(1, flushMillis) * 1_000_000L;
+        server = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        server.bind(address, GameServer.BACKLOG);
+        server.configureBlocking(false);
+        loops = new EventLoop[threads];
+        for (int i = 0; i < threads; i++) {
+            loops[i] = new EventLoop();
+        }
+        // the first loop also accepts, and hands connections out in turn
+        server.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+        this.threads = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            this.threads[i] = new Thread(loops[i], "nio-loop-" + i);
+            this.threads[i].start();
+        }
+    }
+
+    /**
+     * Waits until the server is closed
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public void join() throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Stops the event loops and closes every connection
+     * @throws IOException if the listening socket cannot be closed
+     */
+    public void close() throws IOException {
+        closed = true;
+        for (EventLoop loop : loops) {
+            loop.selector.wakeup();
+        }
+        server.close();
+        if (address instanceof UnixDomainSocketAddress) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+        }
+    }
+
+    /**
+     * What the server keeps for one connection between reads
+     */
+    private static final class Connection {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final byte[] line = new byte[MAX_LINE];
+        int lineLength;
+        // true once the current line has gone past MAX_LINE
+        boolean overflowed;
+        GameSession session;
+        // the game being watched, or null
+        Broadcaster.Subscription watching;
+        // the reply the socket could not take yet, or null
+        ByteBuffer pending;
+        boolean closing;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+    }
+
+    /**
+     * One thread with its own selector, serving its share of the connections from start to end
+     */
+    private final class EventLoop implements Runnable {
+        final Selector selector;
+        final Queue<SocketChannel> incoming = new ConcurrentLinkedQueue<>();
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        private final StringBuilder reply = new StringBuilder(256);
+        private final MoveParser parser = new MoveParser();
+        private final Broadcaster broadcaster = new Broadcaster();
+        // spectators whose socket failed during a flush, closed after it
+        private final List<Connection> broken = new ArrayList<>();
+        private long nextFlush;
+        // start and end of the first word of the current line
+        private final int[] tokens = new int[2];
+        // 0 for a blank line, 1 for one word, 2 for more
+        private int tokenCount;
+        private int nextLoop;
+        // the accepting key while accepting is stopped after a failure, or null
+        private SelectionKey pausedAccept;
+        private long acceptRetry;
+
+        EventLoop() throws IOException {
+            selector = Selector.open();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    select();
+                    SocketChannel channel;
+                    while ((channel = incoming.poll()) != null) {
+                        register(channel);
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept(key);
+                        } else if (key.isWritable()) {
+                            writePending((Connection) key.attachment());
+                        } else if (key.isReadable()) {
+                            read((Connection) key.attachment());
+                        }
+                    }
+                    if (broadcaster.size() > 0 && System.nanoTime() - nextFlush >= 0) {
+                        flush();
+                    }
+                    if (pausedAccept != null && System.nanoTime() - acceptRetry >= 0) {
+                        pausedAccept.interestOps(SelectionKey.OP_ACCEPT);
+                        pausedAccept = null;
+                    }
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                // the loop cannot go on without its selector
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    if (key.attachment() instanceof Connection) {
+                        close((Connection) key.attachment());
+                    }
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    // shutting down anyway
+                }
+            }
+        }
+
+        /**
+         * Waits for sockets that are ready, but no longer than until the next flush or the
+         * time to accept again
+         */
+        private void select() throws IOException {
+            boolean flushing = broadcaster.size() > 0;
+            if (!flushing && pausedAccept == null) {
+                selector.select();
+                return;
+            }
+            long deadline = flushing ? nextFlush : acceptRetry;
+            if (pausedAccept != null && acceptRetry - deadline < 0) {
+                deadline = acceptRetry;
+            }
+            long wait = deadline - System.nanoTime();
+            if (wait > 0) {
+                selector.select(Math.max(1L, wait / 1_000_000L));
+            } else {
+                selector.selectNow();
+            }
+        }
+
+        private void accept(SelectionKey key) {
+            while (true) {
+                SocketChannel channel;
+                try {
+                    channel = server.accept();
+                } catch (IOException e) {
+                    // out of file descriptors, or closing: the client waits in the backlog, and
+                    // the loop must go on serving the connections it has. The key would be ready
+                    // again at once, so accepting stops for a while instead of spinning.
+                    key.interestOps(0);
+                    pausedAccept = key;
+                    acceptRetry = System.nanoTime() + ACCEPT_RETRY_NANOS;
+                    return;
+                }
+                if (channel == null) {
+                    return;
+                }
+                try {
+                    channel.configureBlocking(false);
+                } catch (IOException e) {
+                    closeQuietly(channel);
+                    continue;
+                }
+                EventLoop loop = loops[nextLoop];
+                nextLoop = (nextLoop + 1) % loops.length;
+                if (loop == this) {
+                    register(channel);
+                } else {
+                    loop.incoming.add(channel);
+                    loop.selector.wakeup();
+                }
+            }
+        }
+
+        private void register(SocketChannel channel) {
+            Connection connection;
+            try {
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                connection = new Connection(channel, key);
+                key.attach(connection);
+            } catch (IOException e) {
+                closeQuietly(channel);
+                return;
+            }
+            reply.setLength(0);
+            newGame(connection);
+            send(connection);
+        }
+
+        private void read(Connection connection) {
+            readBuffer.clear();
+            int n;
+            try {
+                n = connection.channel.read(readBuffer);
+            } catch (IOException e) {
+                n = -1;
+            }
+            if (n < 0) {
+                close(connection);
+                return;
+            }
+            readBuffer.flip();
+            reply.setLength(0);
+            byte[] line = connection.line;
+            while (readBuffer.hasRemaining() && !connection.closing) {
+                byte b = readBuffer.get();
+                if (b == '\n') {
+                    if (connection.overflowed) {
+                        // what was kept is only the start of the line, so it is not run
+                        reply.append("error line too long\n");
+                    } else {
+                        handle(connection);
+                    }
+                    connection.lineLength = 0;
+                    connection.overflowed = false;
+                } else if (connection.lineLength < MAX_LINE) {
+                    line[connection.lineLength++] = b;
+                } else {
+                    connection.overflowed = true;
+                }
+            }
+            send(connection);
+        }
+
+        /**
+         * Runs the command on the connection's line and appends its reply
+         */
+        private void handle(Connection connection) {
+            tokenize(connection.line, connection.lineLength);
+            if (tokenCount == 0) {
+                return;
+            }
+            GameSession session = connection.session;
+            try {
+                if (tokenCount == 1 && is(connection, 0, "quit")) {
+                    ok(null);
+                    connection.closing = true;
+                } else if (tokenCount == 1 && is(connection, 0, "new")) {
+                    if (session != null) {
+                        sessions.remove(session.getId());
+                    }
+                    newGame(connection);
+                } else if (tokenCount == 2 && is(connection, 0, "watch")) {
+                    watch(connection);
+                } else if (tokenCount == 1 && is(connection, 0, "unwatch")) {
+                    unwatch(connection);
+                    ok(null);
+                } else if (session == null) {
+                    throw new IllegalStateException("no game, send new");
+                } else if (tokenCount == 1 && is(connection, 0, "status")) {
+                    ok(session.status());
+                } else if (tokenCount == 1 && is(connection, 0, "fen")) {
+                    ok(session.fen());
+                } else if (tokenCount == 1 && is(connection, 0, "board")) {
+                    session.appendBoard(reply);
+                    reply.append('\n');
+                    ok(null);
+                } else if (tokenCount == 1 && is(connection, 0, "diff")) {
+                    reply.append("ok ");
+                    session.appendDiff(reply);
+                    reply.append('\n');
+                } else {
+                    // a move, resign or draw
+                    String san = session.play(parser, connection.line, 0, connection.lineLength);
+                    ok(san != null ? san + " " + session.status() : session.status());
+                }
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                reply.append("error ").append(e.getMessage()).append('\n');
+            }
+        }
+
+        /**
+         * Runs watch id: the connection's own game ends and it is sent the moves of game id
+         */
+        private void watch(Connection connection) {
+            int start = tokens[1];
+            int end = connection.lineLength;
+            while (start < end && isSpace(connection.line[start])) {
+                start++;
+            }
+            while (end > start && isSpace(connection.line[end - 1])) {
+                end--;
+            }
+            GameSession watched = sessions.get(new String(connection.line, start, end - start, StandardCharsets.US_ASCII));
+            if (watched == null) {
+                throw new IllegalArgumentException("no such game");
+            }
+            if (watched == connection.session) {
+                // its game would be left with nobody to end it
+                throw new IllegalArgumentException("cannot watch your own game");
+            }
+            unwatch(connection);
+            if (connection.session != null) {
+                sessions.remove(connection.session.getId());
+                connection.session = null;
+            }
+            if (broadcaster.size() == 0) {
+                nextFlush = System.nanoTime() + flushNanos;
+            }
+            connection.watching = broadcaster.subscribe(watched, batch -> deliver(connection, batch));
+            ok(null);
+        }
+
+        private void unwatch(Connection connection) {
+            if (connection.watching != null) {
+                broadcaster.unsubscribe(connection.watching);
+                connection.watching = null;
+            }
+        }
+
+        /**
+         * Sends every spectator of this loop the moves it has not had yet
+         */
+        private void flush() {
+            broadcaster.flush();
+            nextFlush = System.nanoTime() + flushNanos;
+            for (Connection connection : broken) {
+                close(connection);
+            }
+            broken.clear();
+        }
+
+        /**
+         * Writes a batch of moves to a spectator, unless the socket has not taken the last one yet
+         * @return  Returns true if the batch was written or kept to be written
+         */
+        private boolean deliver(Connection connection, MoveBatch batch) {
+            if (connection.pending != null || connection.closing) {
+                return false;
+            }
+            byte[] bytes = batch.getBytes();
+            ByteBuffer data = bytes.length <= writeBuffer.capacity()
+                    ? writeBuffer.clear().put(bytes).flip()
+                    : ByteBuffer.wrap(bytes);
+            try {
+                connection.channel.write(data);
+            } catch (IOException e) {
+                // closing it now would change the subscriptions being flushed
+                connection.closing = true;
+                broken.add(connection);
+                return true;
+            }
+            if (data.hasRemaining()) {
+                connection.pending = ByteBuffer.allocate(data.remaining()).put(data).flip();
+                connection.key.interestOps(SelectionKey.OP_WRITE);
+            }
+            return true;
+        }
+
+        private void newGame(Connection connection) {
+            try {
+                connection.session = sessions.create(null);
+                ok(connection.session.getId() + " " + connection.session.status());
+            } catch (IllegalStateException e) {
+                connection.session = null;
+                reply.append("error ").append(e.getMessage()).append('\n');
+            }
+        }
+
+        private void ok(String text) {
+            reply.append("ok");
+            if (text != null) {
+                reply.append(' ').append(text);
+            }
+            reply.append('\n');
+        }
+
+        /**
+         * Sends the reply, keeping what the socket does not take for later
+         */
+        private void send(Connection connection) {
+            int length = reply.length();
+            int i = 0;
+            try {
+                while (i < length) {
+                    writeBuffer.clear();
+                    while (i < length && writeBuffer.hasRemaining()) {
+                        writeBuffer.put(ascii(reply.charAt(i++)));
+                    }
+                    writeBuffer.flip();
+                    connection.channel.write(writeBuffer);
+                    if (writeBuffer.hasRemaining()) {
+                        ByteBuffer rest = ByteBuffer.allocate(writeBuffer.remaining() + length - i);
+                        rest.put(writeBuffer);
+                        while (i < length) {
+                            rest.put(ascii(reply.charAt(i++)));
+                        }
+                        rest.flip();
+                        connection.pending = rest;
+                        // stop reading the client until it takes its replies
+                        connection.key.interestOps(SelectionKey.OP_WRITE);
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                close(connection);
+                return;
+            }
+            if (connection.closing) {
+                close(connection);
+            }
+        }
+
+        private void writePending(Connection connection) {
+            try {
+                connection.channel.write(connection.pending);
+            } catch (IOException e) {
+                close(connection);
+                return;
+            }
+            if (connection.pending.hasRemaining()) {
+                return;
+            }
+            connection.pending = null;
+            if (connection.closing) {
+                close(connection);
+            } else {
+                connection.key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        private void close(Connection connection) {
+            connection.key.cancel();
+            closeQuietly(connection.channel);
+            unwatch(connection);
+            if (connection.session != null) {
+                sessions.remove(connection.session.getId());
+                connection.session = null;
+            }
+        }
+
+        /**
+         * Finds the first word of a line
+         * @param line  the line
+         * @param end   the length of the line
+         */
+        private void tokenize(byte[] line, int end) {
+            tokenCount = 0;
+            int i = 0;
+            while (i < end && isSpace(line[i])) {
+                i++;
+            }
+            if (i == end) {
+                return;
+            }
+            tokens[0] = i;
+            while (i < end && !isSpace(line[i])) {
+                i++;
+            }
+            tokens[1] = i;
+            tokenCount = 1;
+            while (i < end && isSpace(line[i])) {
+                i++;
+            }
+            if (i < end) {
+                // only the count matters past the first word
+                tokenCount = 2;
+            }
+        }
+
+        private boolean is(Connection connection, int token, String word) {
+            int start = tokens[2 * token];
+            int length = tokens[2 * token + 1] - start;
+            if (length != word.length()) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (Character.toLowerCase(connection.line[start + i]) != word.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static byte ascii(char c) {
+        return c < 0x80 ? (byte) c : (byte) '?';
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\f';
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // nothing more to do with it
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String where = args.length > 0 ? args[0] : "5001";
+        int threads = Integer.getInteger("threads", Runtime.getRuntime().availableProcessors());
+        SessionRegistry sessions = new SessionRegistry(Integer.getInteger("sessions", 100000));
+        int flush = Integer.getInteger("flush", FLUSH_MILLIS);
+        NioGameServer server = new NioGameServer(GameServer.address(where), sessions, threads, flush);
+        // stopping the JVM closes the server, which also removes a Unix domain socket file
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                // exiting anyway
+            }
+        }));
+        System.out.println("Listening on " + where + " with " + threads + " event loops");
+        server.join();
+    }
+}
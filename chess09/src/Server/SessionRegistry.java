@@ -0,0 +1,107 @@
+package Server;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * The games a server hosts, by session ID. An ID is 128 bits from a SecureRandom, so a
+ * client cannot guess other clients' games, neither by trying the next number nor from the
+ * IDs it has been given. Games nobody has used for a while are evicted. A game removed
+ * before it is over is lost by the player to move, so that its spectators see it end.
+ */
+
+public class SessionRegistry {
+    private static final int ID_BYTES = 16;
+
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentHashMap<String, GameSession> sessions = new ConcurrentHashMap<>();
+    private final int maxSessions;
+
+    /**
+     * Creates an empty registry
+     * @param maxSessions   the most games hosted at once
+     */
+    public SessionRegistry(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * Starts a new game
+     * @param fen   the FEN record of the starting position, or null for the standard one
+     * @return      Returns the new game
+     * @throws IllegalArgumentException if the FEN record is invalid
+     * @throws IllegalStateException if the registry is full
+     */
+    public GameSession create(String fen) {
+        if (sessions.size() >= maxSessions) {
+            throw new IllegalStateException("too many games, the limit is " + maxSessions);
+        }
+        while (true) {
+            byte[] bytes = new byte[ID_BYTES];
+            random.nextBytes(bytes);
+            String id = new BigInteger(1, bytes).toString(36);
+            GameSession session = new GameSession(id, fen);
+            if (sessions.putIfAbsent(id, session) == null) {
+                return session;
+            }
+        }
+    }
+
+    /**
+     * Finds a game and marks it as used
+     * @param id    the session ID
+     * @return      Returns the game, or null if there is no game with that ID
+     */
+    public GameSession get(String id) {
+        GameSession session = sessions.get(id);
+        if (session != null) {
+            session.touch();
+        }
+        return session;
+    }
+
+    /**
+     * Ends a game, by abandonment if it is still going on
+     * @param id    the session ID
+     * @return      Returns true if there was a game with that ID
+     */
+    public boolean remove(String id) {
+        GameSession session = sessions.remove(id);
+        if (session == null) {
+            return false;
+        }
+        session.abandon();
+        return true;
+    }
+
+    /**
+     * Removes every game that has not been used for a while
+     * @param idleNanos     how long a game may go unused, in nanoseconds
+     * @return              Returns the number of games removed
+     */
+    public int evictIdle(long idleNanos) {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (Iterator<GameSession> it = sessions.values().iterator(); it.hasNext();) {
+            GameSession session = it.next();
+            if (now - session.getLastUsed() > idleNanos) {
+                it.remove();
+                session.abandon();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Gets the number of games hosted
+     * @return  Returns the game count
+     */
+    public int size() {
+        return sessions.size();
+    }
+}
@@ -0,0 +1,20 @@
+package Server;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Something that watches games through a Broadcaster, such as a spectator's connection
+ */
+
+public interface Subscriber {
+
+    /**
+     * Takes the events the subscriber has not had yet. A subscriber that cannot take them
+     * now, because its connection is still sending the last batch, returns false. It is
+     * offered them again at the next flush, together with any that came since, so a slow
+     * subscriber receives fewer, larger batches rather than a growing queue.
+     * @param batch     the events, or a resync. It may only be used until this returns
+     * @return          Returns true if the batch was taken
+     */
+    boolean deliver(MoveBatch batch);
+}
@@ -0,0 +1,169 @@
+package Board;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Tests for MoveParser: every result code and every input form
+ */
+
+class MoveParserTest {
+    private final MoveParser parser = new MoveParser();
+    private final Position position = new Position();
+
+    @BeforeEach
+    void setUp() {
+        Fen.parse(Fen.START, position);
+    }
+
+    @Test
+    void emptyLine() {
+        assertEquals(MoveParser.EMPTY, parser.parse("", position));
+        assertEquals(MoveParser.EMPTY, parser.parse(" \t ", position));
+        assertEquals(Move.NONE, parser.getMove());
+    }
+
+    @Test
+    void syntaxErrors() {
+        assertEquals(MoveParser.SYNTAX, parser.parse("hello", position));
+        assertEquals(MoveParser.SYNTAX, parser.parse("z9 e4", position));
+        assertEquals(MoveParser.SYNTAX, parser.parse("e2 e4 Q extra", position));
+        assertEquals(MoveParser.SYNTAX, parser.parse("a b c d e", position));
+        assertEquals(Move.NONE, parser.getMove());
+    }
+
+    @Test
+    void badPromotion() {
+        assertEquals(MoveParser.BAD_PROMOTION, parser.parse("e2 e4 X", position));
+        assertEquals(MoveParser.BAD_PROMOTION, parser.parse("e2 e4 QQ", position));
+        assertEquals(MoveParser.BAD_PROMOTION, parser.parse("e2e4x", position));
+    }
+
+    @Test
+    void illegalMoves() {
+        assertEquals(MoveParser.ILLEGAL, parser.parse("e2 e5", position));
+        assertEquals(MoveParser.ILLEGAL, parser.parse("e7e5", position));
+        assertEquals(MoveParser.ILLEGAL, parser.parse("Nf4", position));
+        // pinned: the knight on e2 may not leave the king's file
+        Fen.parse("4r1k1/8/8/8/8/8/4N3/4K3 w - - 0 1", position);
+        assertEquals(MoveParser.ILLEGAL, parser.parse("e2 c3", position));
+    }
+
+    @Test
+    void ambiguousSan() {
+        Fen.parse("4k3/8/8/8/8/8/4K3/R6R w - - 0 1", position);
+        assertEquals(MoveParser.AMBIGUOUS, parser.parse("Rd1", position));
+        assertEquals(MoveParser.MOVE, parser.parse("Rad1", position));
+        assertEquals(Position.square(0, 0), Move.from(parser.getMove()));
+        // squares are never ambiguous
+        assertEquals(MoveParser.MOVE, parser.parse("h1 d1", position));
+        assertEquals(Position.square(0, 7), Move.from(parser.getMove()));
+    }
+
+    @Test
+    void tooLong() {
+        String line = "e2 e4" + " ".repeat(MoveParser.MAX_LENGTH);
+        assertEquals(MoveParser.TOO_LONG, parser.parse(line, position));
+        byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+        assertEquals(MoveParser.TOO_LONG, parser.parse(bytes, 0, bytes.length, position));
+        assertEquals(MoveParser.TOO_LONG, parser.parse(ByteBuffer.wrap(bytes), position));
+    }
+
+    @Test
+    void squaresWithSpaces() {
+        assertEquals(MoveParser.MOVE, parser.parse("e2 e4", position));
+        assertMove("e2e4", parser.getMove());
+        assertTrue(Move.is(parser.getMove(), Move.DOUBLE_PUSH));
+        assertFalse(parser.offersDraw());
+    }
+
+    @Test
+    void squaresTogether() {
+        assertEquals(MoveParser.MOVE, parser.parse("g1f3", position));
+        assertMove("g1f3", parser.getMove());
+    }
+
+    @Test
+    void standardAlgebraicNotation() {
+        assertEquals(MoveParser.MOVE, parser.parse("Nf3", position));
+        assertMove("g1f3", parser.getMove());
+        Fen.parse("4k3/8/8/8/8/8/8/4K2R w K - 0 1", position);
+        assertEquals(MoveParser.MOVE, parser.parse("O-O", position));
+        assertTrue(Move.is(parser.getMove(), Move.CASTLE));
+    }
+
+    @Test
+    void promotions() {
+        Fen.parse("8/4P3/8/8/8/8/8/k3K3 w - - 0 1", position);
+        assertEquals(MoveParser.MOVE, parser.parse("e7 e8", position));
+        assertEquals(Position.QUEEN, Move.promotion(parser.getMove()));
+        assertEquals(MoveParser.MOVE, parser.parse("e7 e8 N", position));
+        assertEquals(Position.KNIGHT, Move.promotion(parser.getMove()));
+        assertEquals(MoveParser.MOVE, parser.parse("e7e8r", position));
+        assertEquals(Position.ROOK, Move.promotion(parser.getMove()));
+        assertEquals(MoveParser.MOVE, parser.parse("e8=B", position));
+        assertEquals(Position.BISHOP, Move.promotion(parser.getMove()));
+    }
+
+    @Test
+    void resignAndDraw() {
+        assertEquals(MoveParser.RESIGN, parser.parse("resign", position));
+        assertEquals(MoveParser.RESIGN, parser.parse("  Resign ", position));
+        assertEquals(MoveParser.DRAW, parser.parse("DRAW", position));
+        assertEquals(Move.NONE, parser.getMove());
+    }
+
+    @Test
+    void drawOffer() {
+        assertEquals(MoveParser.MOVE, parser.parse("e2 e4 draw?", position));
+        assertMove("e2e4", parser.getMove());
+        assertTrue(parser.offersDraw());
+        assertEquals(MoveParser.MOVE, parser.parse("e4 draw?", position));
+        assertTrue(parser.offersDraw());
+        assertEquals(MoveParser.MOVE, parser.parse("e4", position));
+        assertFalse(parser.offersDraw());
+    }
+
+    @Test
+    void byteInput() {
+        byte[] line = "xxe2 e4\r\nyy".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(MoveParser.MOVE, parser.parse(line, 2, 9, position));
+        assertMove("e2e4", parser.getMove());
+    }
+
+    @Test
+    void bufferInput() {
+        ByteBuffer buffer = ByteBuffer.wrap("..Nf3".getBytes(StandardCharsets.US_ASCII));
+        buffer.position(2);
+        assertEquals(MoveParser.MOVE, parser.parse(buffer, position));
+        assertMove("g1f3", parser.getMove());
+        assertEquals(2, buffer.position());
+    }
+
+    @Test
+    void charSequenceRange() {
+        assertEquals(MoveParser.MOVE, parser.parse("move d2 d4 now", 5, 10, position));
+        assertMove("d2d4", parser.getMove());
+    }
+
+    @Test
+    void describe() {
+        assertEquals("move", MoveParser.describe(MoveParser.MOVE));
+        assertEquals("illegal move", MoveParser.describe(MoveParser.ILLEGAL));
+        assertEquals("input too long", MoveParser.describe(MoveParser.TOO_LONG));
+        assertEquals("unknown result -99", MoveParser.describe(-99));
+    }
+
+    private static void assertMove(String expected, int move) {
+        assertEquals(expected, Move.toCoordinate(move));
+    }
+}
@@ -0,0 +1,160 @@
+package Server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import Board.Move;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Tests for Broadcaster: resyncs, combined batches for slow subscribers and unsubscribing
+ */
+
+class BroadcasterTest {
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private final SessionRegistry sessions = new SessionRegistry(10);
+    private final Broadcaster broadcaster = new Broadcaster();
+    private GameSession game;
+    private String id;
+
+    @BeforeEach
+    void setUp() {
+        game = sessions.create(null);
+        id = game.getId();
+    }
+
+    @Test
+    void newSubscriberGetsResync() {
+        Spectator spectator = new Spectator();
+        broadcaster.subscribe(game, spectator);
+        assertEquals(1, broadcaster.flush());
+        assertEquals(List.of("resync " + id + " 0 " + START), spectator.lines);
+        // nothing new, nothing sent
+        assertEquals(0, broadcaster.flush());
+        game.move("e4", false);
+        assertEquals(1, broadcaster.flush());
+        assertEquals("moves " + id + " 0 e2e4", spectator.last());
+    }
+
+    @Test
+    void resyncOfFinishedGame() {
+        game.move("e4", false);
+        game.resign();
+        Spectator spectator = new Spectator();
+        broadcaster.subscribe(game, spectator);
+        broadcaster.flush();
+        assertEquals("resync " + id + " 2 " + game.fen() + " 1-0", spectator.last());
+    }
+
+    @Test
+    void slowSubscriberGetsOneBatch() {
+        Spectator fast = new Spectator();
+        Spectator slow = new Spectator();
+        broadcaster.subscribe(game, fast);
+        broadcaster.subscribe(game, slow);
+        assertEquals(2, broadcaster.flush());
+
+        slow.refusing = true;
+        for (String san : new String[] { "e4", "e5", "Nf3" }) {
+            game.move(san, false);
+            assertEquals(1, broadcaster.flush());
+        }
+        assertEquals(List.of("moves " + id + " 0 e2e4", "moves " + id + " 1 e7e5", "moves " + id + " 2 g1f3"),
+                fast.lines.subList(1, 4));
+        assertEquals(1, slow.lines.size());
+
+        // everything it missed, in one line, and the fast one is not sent it again
+        slow.refusing = false;
+        assertEquals(1, broadcaster.flush());
+        assertEquals("moves " + id + " 0 e2e4 e7e5 g1f3", slow.last());
+        assertEquals(4, fast.lines.size());
+    }
+
+    @Test
+    void subscribersShareBatch() {
+        Spectator first = new Spectator();
+        Spectator second = new Spectator();
+        broadcaster.subscribe(game, first);
+        broadcaster.subscribe(game, second);
+        broadcaster.flush();
+        game.move("d4", false);
+        assertEquals(2, broadcaster.flush());
+        assertSame(first.bytes, second.bytes);
+    }
+
+    @Test
+    void resyncAfterLapping() {
+        Spectator spectator = new Spectator();
+        broadcaster.subscribe(game, spectator);
+        broadcaster.flush();
+        game.move("e4", false);
+        game.move("e5", false);
+        broadcaster.flush();
+        assertEquals("moves " + id + " 0 e2e4 e7e5", spectator.last());
+
+        // the feed laps the spectator while it refuses; the events are never read, so any will do
+        spectator.refusing = true;
+        for (int i = 0; i < MoveFeed.CAPACITY + 44; i++) {
+            game.getFeed().publish(MoveFeed.event(Move.NONE, MoveFeed.NO_RESULT));
+        }
+        broadcaster.flush();
+        spectator.refusing = false;
+        assertEquals(1, broadcaster.flush());
+        assertEquals("resync " + id + " 302 " + game.fen(), spectator.last());
+
+        // and carries on from the resync
+        game.resign();
+        assertEquals(1, broadcaster.flush());
+        assertEquals("moves " + id + " 302 0-1", spectator.last());
+    }
+
+    @Test
+    void unsubscribe() {
+        Spectator kept = new Spectator();
+        Spectator gone = new Spectator();
+        broadcaster.subscribe(game, kept);
+        Broadcaster.Subscription subscription = broadcaster.subscribe(game, gone);
+        assertEquals(2, broadcaster.size());
+        broadcaster.unsubscribe(subscription);
+        // a second time does nothing
+        broadcaster.unsubscribe(subscription);
+        assertEquals(1, broadcaster.size());
+        assertEquals(1, broadcaster.flush());
+        assertTrue(gone.lines.isEmpty());
+        assertEquals(1, kept.lines.size());
+    }
+
+    /**
+     * Keeps the lines it is sent, or refuses them like a connection whose socket is full
+     */
+    private static class Spectator implements Subscriber {
+        final List<String> lines = new ArrayList<>();
+        boolean refusing;
+        byte[] bytes;
+
+        @Override
+        public boolean deliver(MoveBatch batch) {
+            if (refusing) {
+                return false;
+            }
+            StringBuilder sb = new StringBuilder();
+            batch.appendTo(sb);
+            lines.add(sb.toString());
+            bytes = batch.getBytes();
+            return true;
+        }
+
+        String last() {
+            return lines.get(lines.size() - 1);
+        }
+    }
+}
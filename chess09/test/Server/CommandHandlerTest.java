@@ -0,0 +1,88 @@
+package Server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Tests for the text protocol of GameServer
+ */
+
+class CommandHandlerTest {
+    private final SessionRegistry sessions = new SessionRegistry(10);
+    private final CommandHandler handler = new CommandHandler(sessions);
+    private String id;
+
+    @BeforeEach
+    void setUp() {
+        String reply = run("new");
+        assertTrue(reply.startsWith("ok ") && reply.endsWith(" white to move\n"), reply);
+        id = reply.split(" ")[1];
+    }
+
+    @Test
+    void movesInBothForms() {
+        assertEquals("ok e4 black to move\n", run("move " + id + " e2 e4"));
+        assertEquals("ok Nf6 white to move\n", run("move " + id + " Nf6"));
+        assertEquals("ok Nf3 black to move\n", run("move " + id + " Nf3"));
+        assertEquals("ok over 1-0 resignation\n", run("resign " + id));
+    }
+
+    @Test
+    void statusAndPosition() {
+        run("move " + id + " f2 f3");
+        run("move " + id + " e7 e5");
+        run("move " + id + " g2 g4");
+        assertEquals("ok Qh4# over 0-1 checkmate\n", run("move " + id + " Qh4"));
+        assertEquals("ok over 0-1 checkmate\n", run("status " + id));
+        assertEquals("ok rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3\n", run("fen " + id));
+        assertEquals("error the game is over\n", run("move " + id + " e2 e4"));
+    }
+
+    @Test
+    void boardAndDiff() {
+        run("move " + id + " e2 e4");
+        String board = run("board " + id);
+        assertTrue(board.startsWith("bR bN bB bQ bK bB bN bR 8\n"), board);
+        assertTrue(board.endsWith(" a  b  c  d  e  f  g  h\nok\n"), board);
+        assertEquals("ok e2=- e4=wP\n", run("diff " + id));
+    }
+
+    @Test
+    void drawOffer() {
+        assertEquals("ok e4 black to move draw-offered\n", run("move " + id + " e2 e4 draw?"));
+        assertEquals("error a draw was offered, the only answer is draw\n", run("move " + id + " e7 e5"));
+        assertEquals("ok over 1/2-1/2 agreement\n", run("draw " + id));
+    }
+
+    @Test
+    void errors() {
+        assertEquals("error illegal move\n", run("move " + id + " e2 e5"));
+        assertEquals("error unknown promotion piece X\n", run("move " + id + " e2 e4 X"));
+        assertEquals("error no such game nope\n", run("status nope"));
+        assertEquals("error missing game id\n", run("fen"));
+        assertEquals("error unknown command fly\n", run("fly"));
+        assertEquals("error no draw was offered\n", run("draw " + id));
+    }
+
+    @Test
+    void endAndQuit() {
+        assertEquals("ok\n", run("end " + id));
+        assertEquals("error no such game\n", run("end " + id));
+        assertEquals(0, sessions.size());
+        StringBuilder reply = new StringBuilder();
+        assertFalse(handler.handle("quit", reply));
+        assertEquals("ok\n", reply.toString());
+    }
+
+    private String run(String line) {
+        StringBuilder reply = new StringBuilder();
+        assertTrue(handler.handle(line, reply));
+        return reply.toString();
+    }
+}
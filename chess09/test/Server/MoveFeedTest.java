@@ -0,0 +1,97 @@
+package Server;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import Board.Move;
+import Board.Position;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Tests for MoveFeed: the events, the ring and reading past its ends
+ */
+
+class MoveFeedTest {
+    private final MoveFeed feed = new MoveFeed();
+
+    @Test
+    void events() {
+        int move = Move.of(Position.square(1, 4), Position.square(3, 4), 0, Move.DOUBLE_PUSH);
+        int event = MoveFeed.event(move, MoveFeed.NO_RESULT);
+        assertEquals(Move.compact(move), MoveFeed.move(event));
+        assertEquals(MoveFeed.NO_RESULT, MoveFeed.result(event));
+        assertEquals("e2e4", text(event));
+
+        int mate = Move.of(Position.square(7, 3), Position.square(3, 7), 0, 0);
+        assertEquals("d8h4/0-1", text(MoveFeed.event(mate, MoveFeed.BLACK_WINS)));
+        assertEquals("1-0", text(MoveFeed.event(Move.NONE, MoveFeed.WHITE_WINS)));
+        assertEquals("1/2-1/2", text(MoveFeed.event(Move.NONE, MoveFeed.DRAW)));
+
+        int promotion = Move.of(Position.square(6, 0), Position.square(7, 0), Position.KNIGHT, 0);
+        assertEquals(Position.KNIGHT, Move.promotion(MoveFeed.move(MoveFeed.event(promotion, MoveFeed.DRAW))));
+    }
+
+    @Test
+    void resultCodes() {
+        assertEquals(MoveFeed.WHITE_WINS, MoveFeed.resultOf("1-0"));
+        assertEquals(MoveFeed.BLACK_WINS, MoveFeed.resultOf("0-1"));
+        assertEquals(MoveFeed.DRAW, MoveFeed.resultOf("1/2-1/2"));
+        assertEquals(MoveFeed.NO_RESULT, MoveFeed.resultOf(null));
+    }
+
+    @Test
+    void readsUpToTheHead() {
+        publish(0, 10);
+        assertEquals(10, feed.head());
+        int[] dst = new int[20];
+        assertEquals(10, feed.read(0, dst, 0, dst.length));
+        assertEquals(4, feed.read(3, dst, 5, 4));
+        assertArrayEquals(new int[] { 3, 4, 5, 6 }, Arrays.copyOfRange(dst, 5, 9));
+        // nothing new is not an overrun
+        assertEquals(0, feed.read(10, dst, 0, dst.length));
+    }
+
+    @Test
+    void wrapsAround() {
+        publish(0, MoveFeed.CAPACITY + 100);
+        int[] dst = new int[MoveFeed.CAPACITY];
+        // the oldest event still in the ring and every one after it, across the end of the array
+        long oldest = feed.head() - MoveFeed.CAPACITY + 1;
+        int count = feed.read(oldest, dst, 0, dst.length);
+        assertEquals(MoveFeed.CAPACITY - 1, count);
+        for (int i = 0; i < count; i++) {
+            assertEquals((int) oldest + i, dst[i]);
+        }
+    }
+
+    @Test
+    void overrun() {
+        publish(0, MoveFeed.CAPACITY);
+        int[] dst = new int[MoveFeed.CAPACITY];
+        assertEquals(MoveFeed.CAPACITY - 1, feed.read(1, dst, 0, dst.length));
+        // event CAPACITY goes in the place of event 0, which is given up as soon as the
+        // publisher may be writing it
+        assertEquals(-1, feed.read(0, dst, 0, dst.length));
+        publish(MoveFeed.CAPACITY, 1);
+        assertEquals(-1, feed.read(0, dst, 0, dst.length));
+        assertEquals(-1, feed.read(1, dst, 0, 1));
+        assertEquals(MoveFeed.CAPACITY - 1, feed.read(2, dst, 0, dst.length));
+    }
+
+    private void publish(int first, int count) {
+        for (int i = 0; i < count; i++) {
+            feed.publish(first + i);
+        }
+    }
+
+    private static String text(int event) {
+        StringBuilder sb = new StringBuilder();
+        MoveFeed.append(sb, event);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,167 @@
+package Server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @authors Avinash Paluri and Vishal Patel
+ *
+ * Tests for the text protocol of NioGameServer, over a Unix domain socket
+ */
+
+@Timeout(10)
+class NioGameServerTest {
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @TempDir
+    Path dir;
+
+    private UnixDomainSocketAddress address;
+    private NioGameServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        address = UnixDomainSocketAddress.of(dir.resolve("chess.sock"));
+        server = new NioGameServer(address, new SessionRegistry(10), 1, 5);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.close();
+        server.join();
+    }
+
+    @Test
+    void playsMoves() throws IOException {
+        try (Client client = new Client()) {
+            assertTrue(client.id.length() > 0);
+            assertEquals("ok e4 black to move", client.send("e2 e4"));
+            assertEquals("ok e5 white to move", client.send("e7e5"));
+            assertEquals("ok Nf3 black to move draw-offered", client.send("Nf3 draw?"));
+            assertEquals("error a draw was offered, the only answer is draw", client.send("Nc6"));
+            assertEquals("ok over 1/2-1/2 agreement", client.send("draw"));
+            assertEquals("error the game is over", client.send("d2 d4"));
+        }
+    }
+
+    @Test
+    void positionCommands() throws IOException {
+        try (Client client = new Client()) {
+            assertEquals("ok white to move", client.send("status"));
+            assertEquals("ok " + START, client.send("fen"));
+            client.send("e2 e4");
+            assertEquals("ok e2=- e4=wP", client.send("diff"));
+            assertEquals("bR bN bB bQ bK bB bN bR 8", client.send("board"));
+            for (int i = 1; i < 8; i++) {
+                client.in.readLine();
+            }
+            assertEquals(" a  b  c  d  e  f  g  h", client.in.readLine());
+            assertEquals("ok", client.in.readLine());
+        }
+    }
+
+    @Test
+    void errors() throws IOException {
+        try (Client client = new Client()) {
+            assertEquals("error illegal move", client.send("e2 e5"));
+            assertEquals("error line too long", client.send("e2 e4" + " ".repeat(300)));
+            // a blank line gets no reply, so the next reply is the status
+            assertEquals("ok white to move", client.send("\nstatus"));
+            assertEquals("error no such game", client.send("watch nope"));
+            assertEquals("error cannot watch your own game", client.send("watch " + client.id));
+            assertEquals("ok white to move", client.send("status"));
+        }
+    }
+
+    @Test
+    void newGameAndQuit() throws IOException {
+        try (Client client = new Client()) {
+            client.send("e2 e4");
+            String reply = client.send("new");
+            assertTrue(reply.startsWith("ok ") && reply.endsWith(" white to move"), reply);
+            assertEquals("ok " + START, client.send("fen"));
+            assertEquals("ok", client.send("quit"));
+            assertNull(client.in.readLine());
+        }
+    }
+
+    @Test
+    void watchesAnotherGame() throws IOException {
+        try (Client player = new Client(); Client spectator = new Client()) {
+            player.send("e2 e4");
+            assertEquals("ok", spectator.send("watch " + player.id));
+            assertEquals("resync " + player.id + " 1 rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1",
+                    spectator.in.readLine());
+            player.send("e7 e5");
+            assertEquals("moves " + player.id + " 1 e7e5", spectator.in.readLine());
+            // a spectator has no game of its own
+            assertEquals("error no game, send new", spectator.send("status"));
+            player.send("resign");
+            assertEquals("moves " + player.id + " 2 0-1", spectator.in.readLine());
+            assertEquals("ok", spectator.send("unwatch"));
+        }
+    }
+
+    @Test
+    void spectatorSeesAbandonedGameEnd() throws IOException {
+        try (Client spectator = new Client()) {
+            String id;
+            try (Client player = new Client()) {
+                id = player.id;
+                player.send("e2 e4");
+                assertEquals("ok", spectator.send("watch " + id));
+                assertEquals("resync " + id + " 1 rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1",
+                        spectator.in.readLine());
+            }
+            // black was to move when the player left
+            assertEquals("moves " + id + " 1 1-0", spectator.in.readLine());
+        }
+    }
+
+    /**
+     * A blocking connection that reads the replies line by line
+     */
+    private class Client implements AutoCloseable {
+        final SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        final BufferedReader in;
+        final String id;
+
+        Client() throws IOException {
+            channel.connect(address);
+            in = new BufferedReader(Channels.newReader(channel, StandardCharsets.US_ASCII));
+            String greeting = in.readLine();
+            assertTrue(greeting.startsWith("ok ") && greeting.endsWith(" white to move"), greeting);
+            id = greeting.split(" ")[1];
+        }
+
+        String send(String line) throws IOException {
+            ByteBuffer data = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.US_ASCII));
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            return in.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}